@@ -0,0 +1,128 @@
+package Benchmarks;
+
+import Repositories.BookRepo;
+import Repositories.BorrowingRepo;
+import Repositories.CopyRepo;
+import Repositories.PersistenceManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * An isolated in-memory database filled with a library of a given size, shared by all benchmark threads.
+ * <p>
+ * The library has {@link #size} books, one copy of each book and one borrowing of each copy. Every tenth
+ * borrowing is still open, so its copy is borrowed and the other copies are available. The borrowings are
+ * spread over {@code size / 10} users, so every user has ten of them. Books, copies and borrowings use the
+ * IDs 1 to {@code size}, and borrowing {@code i} is of copy {@code i} of book {@code i}.
+ * <p>
+ * The rows are inserted with plain SQL, which is much faster than going through the repositories
+ * for a million rows; the schema itself is created by the migrations as usual.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+    private static final String URL = "jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1";
+    private static final int PUBLISHERS = 100;
+
+    /**
+     * The number of books, copies and borrowings in the library.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    final BookRepo bookRepo = new BookRepo();
+    final CopyRepo copyRepo = new CopyRepo();
+    final BorrowingRepo borrowingRepo = new BorrowingRepo();
+
+    /**
+     * Boots the persistence unit on the benchmark database and fills it.
+     *
+     * @throws SQLException if the rows cannot be inserted.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        PersistenceManager.startup(Map.of(
+                "jakarta.persistence.jdbc.url", URL,
+                "hibernate.generate_statistics", "false"));
+        seed();
+    }
+
+    /**
+     * Closes the persistence unit, which drops the in-memory database with the last connection.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        PersistenceManager.shutdown();
+    }
+
+    /**
+     * Gets the number of users in the library.
+     *
+     * @return the number of users.
+     */
+    int users() {
+        return Math.max(1, size / 10);
+    }
+
+    /**
+     * Gets the user of a borrowing.
+     *
+     * @param borrowing the ID of the borrowing.
+     * @return the ID of the user who made it.
+     */
+    int userOf(int borrowing) {
+        return (borrowing - 1) % users() + 1;
+    }
+
+    /**
+     * Gets the title of a book.
+     *
+     * @param book the ID of the book.
+     * @return the title of the book.
+     */
+    static String titleOf(int book) {
+        return "Title " + book;
+    }
+
+    /**
+     * Inserts the library and moves the ID sequences past the inserted rows.
+     *
+     * @throws SQLException if the rows cannot be inserted.
+     */
+    private void seed() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO Publishers (id, name) "
+                    + "SELECT X, 'Publisher ' || X FROM SYSTEM_RANGE(1, " + PUBLISHERS + ")");
+            statement.executeUpdate("INSERT INTO Users (id, name, email) "
+                    + "SELECT X, 'User ' || X, 'user' || X || '@example.com' FROM SYSTEM_RANGE(1, " + users() + ")");
+            statement.executeUpdate("INSERT INTO Books (id, title, author, publisher_id, publisher, publicationYear, isbn) "
+                    + "SELECT X, 'Title ' || X, 'Author ' || MOD(X, 1000), MOD(X, " + PUBLISHERS + ") + 1, "
+                    + "'Publisher ' || (MOD(X, " + PUBLISHERS + ") + 1), 1900 + MOD(X, 125), '978' || LPAD(X, 10, '0') "
+                    + "FROM SYSTEM_RANGE(1, " + size + ")");
+            statement.executeUpdate("INSERT INTO Copies (id, book_id, copyNumber, status, version) "
+                    + "SELECT X, X, 1, CASE WHEN MOD(X, 10) = 0 THEN 'B' ELSE 'A' END, 0 FROM SYSTEM_RANGE(1, " + size + ")");
+            statement.executeUpdate("INSERT INTO Borrowings (id, copy_id, user_id, borrowDate, returnDate, version) "
+                    + "SELECT X, X, MOD(X - 1, " + users() + ") + 1, DATEADD(DAY, -MOD(X, 365) - 14, CURRENT_DATE), "
+                    + "CASE WHEN MOD(X, 10) = 0 THEN NULL ELSE DATEADD(DAY, -MOD(X, 365), CURRENT_DATE) END, 0 "
+                    + "FROM SYSTEM_RANGE(1, " + size + ")");
+
+            // The sequences hand out blocks of 50, so leave room for the block that ends at the restart value
+            for (String sequence : new String[]{"Publishers_SEQ", "Users_SEQ", "Books_SEQ", "Copies_SEQ", "Borrowings_SEQ"}) {
+                statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (size + 100));
+            }
+        }
+        System.out.printf("Seeded %d books, copies and borrowings for %d users in %d ms%n",
+                size, users(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
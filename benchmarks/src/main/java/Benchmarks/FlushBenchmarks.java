@@ -0,0 +1,87 @@
+package Benchmarks;
+
+import Entities.Book;
+import Repositories.PersistenceManager;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time Hibernate needs to flush a persistence context holding every book of the library.
+ * <p>
+ * Without bytecode enhancement every flush compares each loaded book with its snapshot; enhanced entities
+ * track their own changes, so only the changed books are looked at. To compare, run it once on a normal
+ * install and once after installing with {@code mvn install -DskipTests -Denhance.phase=none}.
+ * Loading all books of the largest library needs a large heap, so pick the sizes with {@code -p size=10000,100000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FlushBenchmarks {
+
+    /**
+     * An open transaction with all books loaded and some of them changed, set up again before every flush
+     * and rolled back after it, so every flush sees the same library.
+     */
+    @State(Scope.Thread)
+    public static class LoadedBooks {
+        /**
+         * The number of books changed before the flush.
+         */
+        @Param({"0", "100"})
+        public int changed;
+
+        EntityManager em;
+
+        /**
+         * Loads all books in a new transaction and changes some of them.
+         *
+         * @param database the benchmark database.
+         */
+        @Setup(Level.Invocation)
+        public void load(BenchmarkDatabase database) {
+            em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+            em.getTransaction().begin();
+            List<Book> loaded = em.createQuery("SELECT b FROM Book b", Book.class).getResultList();
+            for (int i = 0; i < changed; i++) {
+                Book book = loaded.get(i * loaded.size() / changed);
+                book.setTitle(book.getTitle() + " (revised)");
+            }
+        }
+
+        /**
+         * Rolls the changes back and closes the EntityManager.
+         */
+        @TearDown(Level.Invocation)
+        public void rollback() {
+            em.getTransaction().rollback();
+            em.close();
+        }
+    }
+
+    /**
+     * Flushes the loaded books.
+     *
+     * @param books the loaded and changed books.
+     */
+    @Benchmark
+    public void flush(LoadedBooks books) {
+        books.em.flush();
+    }
+}
@@ -0,0 +1,107 @@
+package Benchmarks;
+
+import Entities.Book;
+import Repositories.BookRow;
+import Repositories.PersistenceManager;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares the ways the repositories can read a large listing: all books of the library as managed entities
+ * (the old listing behaviour), as read-only entities, through a StatelessSession and as {@link BookRow} projections.
+ * <p>
+ * Every benchmark reports the average time of one read. The memory each way needs shows up in the bytes
+ * allocated per read, which the gc profiler adds. Reading all books of the largest library needs a large heap,
+ * so pick the sizes with {@code -p size=10000,100000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReadOnlyQueryBenchmarks {
+    private static final String BOOKS_QUERY = "SELECT b FROM Book b";
+
+    /**
+     * Reads all books as managed entities, with a snapshot of each one kept for dirty checking.
+     *
+     * @param database the benchmark database.
+     * @return the books.
+     */
+    @Benchmark
+    public List<Book> managed(BenchmarkDatabase database) {
+        return read(em -> em.createQuery(BOOKS_QUERY, Book.class).getResultList());
+    }
+
+    /**
+     * Reads all books as read-only entities, without snapshots.
+     *
+     * @param database the benchmark database.
+     * @return the books.
+     */
+    @Benchmark
+    public List<Book> readOnly(BenchmarkDatabase database) {
+        return read(em -> em.createQuery(BOOKS_QUERY, Book.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList());
+    }
+
+    /**
+     * Reads all books through a StatelessSession, without a persistence context.
+     *
+     * @param database the benchmark database.
+     * @return the books.
+     */
+    @Benchmark
+    public List<Book> stateless(BenchmarkDatabase database) {
+        SessionFactory sessionFactory = PersistenceManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return session.createQuery(BOOKS_QUERY, Book.class).getResultList();
+        }
+    }
+
+    /**
+     * Reads all books as projections with only the columns the book list shows.
+     *
+     * @param database the benchmark database.
+     * @return the book rows.
+     */
+    @Benchmark
+    public List<BookRow> projection(BenchmarkDatabase database) {
+        return read(em -> em.createQuery(
+                        "SELECT new Repositories.BookRow(b.id, b.title, b.author, p.name, b.publicationYear, b.isbn) "
+                                + "FROM Book b JOIN b.publisherEntity p", BookRow.class)
+                .getResultList());
+    }
+
+    /**
+     * Runs a read in its own EntityManager.
+     *
+     * @param read the read to run, given an open EntityManager.
+     * @return the result of the read.
+     */
+    private static <T> List<T> read(Function<EntityManager, List<T>> read) {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        // Keep the second-level cache out of the comparison
+        em.setProperty("jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+        try {
+            return read.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package Benchmarks;
+
+import Entities.Book;
+import Entities.Borrowing;
+import Entities.Copy;
+import Entities.User;
+import Repositories.CatalogCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the repository calls the dashboards make, on libraries of 10 thousand to 1 million books.
+ * <p>
+ * Every benchmark reports its throughput and, from the sampled call times, the latency percentiles.
+ * The allocation rate is added by the gc profiler, which the Maven run enables by default.
+ * The lookups pick a random book, user or open borrowing on every call, so they are not served
+ * from a single cached row. The availability listing is measured twice: {@link #getAvailableCopies} is
+ * answered from the query cache after its first call, {@link #getAvailableCopiesUncached} empties the
+ * cache before every call and so measures the query against the database.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RepositoryBenchmarks {
+
+    /**
+     * A copy to borrow in {@link #createBorrowing}, picked before every call and returned after it,
+     * so the library is the same for every call.
+     */
+    @State(Scope.Thread)
+    public static class Loan {
+        int copyId;
+        int userId;
+
+        /**
+         * Picks a random available copy and a random user.
+         *
+         * @param database the benchmark database.
+         */
+        @Setup(Level.Invocation)
+        public void pick(BenchmarkDatabase database) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            do {
+                copyId = random.nextInt(1, database.size + 1);
+            } while (copyId % 10 == 0); // every tenth copy is borrowed already
+            userId = random.nextInt(1, database.users() + 1);
+        }
+
+        /**
+         * Returns the copy borrowed by the call.
+         *
+         * @param database the benchmark database.
+         */
+        @TearDown(Level.Invocation)
+        public void giveBack(BenchmarkDatabase database) {
+            if (!database.borrowingRepo.returnCopyById(copyId)) {
+                throw new IllegalStateException("Copy " + copyId + " was not borrowed");
+            }
+        }
+    }
+
+    /**
+     * Empties the second-level and query caches before every call, so a cacheable query goes to the database.
+     */
+    @State(Scope.Thread)
+    public static class ColdCache {
+        /**
+         * Removes every cached entry and query result.
+         */
+        @Setup(Level.Invocation)
+        public void evict() {
+            CatalogCache.evictAll();
+        }
+    }
+
+    /**
+     * Finds a random book by its ID.
+     *
+     * @param database the benchmark database.
+     * @return the found book.
+     */
+    @Benchmark
+    public Book findBookById(BenchmarkDatabase database) {
+        return database.bookRepo.findBookById(ThreadLocalRandom.current().nextInt(1, database.size + 1));
+    }
+
+    /**
+     * Lists the available copies, nine in ten copies of the library. Nothing changes the copies during
+     * the measurement, so this is the time of a query cache hit.
+     *
+     * @param database the benchmark database.
+     * @return the available copies.
+     */
+    @Benchmark
+    public List<Copy> getAvailableCopies(BenchmarkDatabase database) {
+        return database.copyRepo.getAvailableCopies();
+    }
+
+    /**
+     * Lists the available copies with empty caches, the time of the query against the database.
+     *
+     * @param database the benchmark database.
+     * @param cache empties the caches before the call.
+     * @return the available copies.
+     */
+    @Benchmark
+    public List<Copy> getAvailableCopiesUncached(BenchmarkDatabase database, ColdCache cache) {
+        return database.copyRepo.getAvailableCopies();
+    }
+
+    /**
+     * Lends a random available copy to a random user.
+     *
+     * @param database the benchmark database.
+     * @param loan the copy and user to use.
+     * @return the created borrowing.
+     */
+    @Benchmark
+    public Borrowing createBorrowing(BenchmarkDatabase database, Loan loan) {
+        User user = new User();
+        user.setId(loan.userId);
+        Copy copy = new Copy();
+        copy.setId(loan.copyId);
+
+        Borrowing borrowing = new Borrowing();
+        borrowing.setUser(user);
+        borrowing.setCopy(copy);
+        borrowing.setBorrowDate(new Date());
+        database.borrowingRepo.createBorrowing(borrowing);
+        return borrowing;
+    }
+
+    /**
+     * Lists the borrowings of a random user, ten per user.
+     *
+     * @param database the benchmark database.
+     * @return the borrowings of the user.
+     */
+    @Benchmark
+    public List<Borrowing> getBorrowingsByUser(BenchmarkDatabase database) {
+        return database.borrowingRepo.getBorrowingsByUser(ThreadLocalRandom.current().nextInt(1, database.users() + 1));
+    }
+
+    /**
+     * Finds a random open borrowing by the title of its book and its user.
+     *
+     * @param database the benchmark database.
+     * @return the found borrowing.
+     */
+    @Benchmark
+    public Borrowing findBorrowingByTitleAndUser(BenchmarkDatabase database) {
+        int borrowing = ThreadLocalRandom.current().nextInt(1, database.size / 10 + 1) * 10; // the open ones
+        return database.borrowingRepo.findBorrowingByTitleAndUser(BenchmarkDatabase.titleOf(borrowing), database.userOf(borrowing));
+    }
+}
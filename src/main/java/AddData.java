@@ -8,6 +8,8 @@ import java.sql.Date;
  */
 public class AddData {
     public static void main(String[] args) {
+        PersistenceManager.startup();
+
         UserRepo userRepo = new UserRepo();
         BookRepo bookRepo = new BookRepo();
         CopyRepo copyRepo = new CopyRepo();
@@ -74,31 +76,31 @@ public class AddData {
         Copy copy1 = new Copy();
         copy1.setBook(book1);
         copy1.setCopyNumber(1);
-        copy1.setStatus("Available");
+        copy1.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy1);
 
         Copy copy2 = new Copy();
         copy2.setBook(book2);
         copy2.setCopyNumber(1);
-        copy2.setStatus("Borrowed");
+        copy2.setStatus(CopyStatus.BORROWED);
         copyRepo.createCopy(copy2);
 
         Copy copy3 = new Copy();
         copy3.setBook(book3);
         copy3.setCopyNumber(1);
-        copy3.setStatus("Available");
+        copy3.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy3);
 
         Copy copy4 = new Copy();
         copy4.setBook(book4);
         copy4.setCopyNumber(1);
-        copy4.setStatus("Available");
+        copy4.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy4);
 
         Copy copy5 = new Copy();
         copy5.setBook(book4);
         copy5.setCopyNumber(2);
-        copy5.setStatus("Borrowed");
+        copy5.setStatus(CopyStatus.BORROWED);
         copyRepo.createCopy(copy5);
 
         User user1 = new User();
@@ -155,5 +157,6 @@ public class AddData {
         borrowingRepo.createBorrowing(borrowing2);
 
         System.out.println("Sample data added successfully!");
+        PersistenceManager.shutdown();
     }
 }
\ No newline at end of file
@@ -1,47 +1,336 @@
 import Entities.Borrowing;
 import Entities.Copy;
 import Entities.User;
+import Repositories.*;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.EntityManagerFactory;
-import jakarta.persistence.Persistence;
+import org.HdrHistogram.Histogram;
 
-import java.util.Date;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A simulation program for testing borrowing operations in the Library Management System (LMS).
- * This program demonstrates how to borrow a book copy by a user and persists the borrowing record.
+ * A load generator for the circulation desk of the Library Management System (LMS).
+ * <p>
+ * A number of simulated desks run at the same time, each on its own thread. Every desk picks operations
+ * at random in a fixed mix of borrowing a copy, checking a copy out through the full borrowing record,
+ * returning a copy it lent earlier, browsing a page of the catalog and looking up a user's borrowing history,
+ * and runs them through the real repositories against the configured database. Together the desks aim for
+ * a target rate of operations per second.
+ * <p>
+ * Every operation has a planned start time. Its latency is measured from that planned time rather than from
+ * when it actually started, so a desk that falls behind reports the waiting as well instead of hiding it.
+ * Operations of the warmup phase are run but not recorded. At the end the latency percentiles of every
+ * operation are printed, with the number of operations that were rejected (no available copy, nothing to
+ * return), ran into a conflict with another desk, or failed with an error. Copies still on loan at the end
+ * are returned and the borrowings the simulation created are deleted, so the database is left as it was
+ * found, apart from borrowings other clients made at the same time.
+ * <p>
+ * Usage: {@code BorrowingSimulation [desks] [seconds] [warmupSeconds] [opsPerSecond]},
+ * by default 8 desks, 60 seconds, 10 seconds of warmup and 40 operations per second.
  */
 public class BorrowingSimulation {
 
-    // used for trying borrowings
+    /**
+     * The operations a desk performs, with their share of the mix in percent.
+     * BORROW is the fast path that marks the copy with one conditional update; CHECKOUT records the borrowing
+     * through {@link BorrowingRepo#createBorrowing}, which checks the copy's version and can conflict with
+     * another desk checking out the same copy.
+     */
+    enum Operation {
+        BORROW(10), CHECKOUT(5), RETURN(15), BROWSE(50), HISTORY(20);
 
-    public static void main(String[] args) {
-        EntityManagerFactory emf = Persistence.createEntityManagerFactory("LMS-PU");
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final int PAGE_SIZE = 50;
+    private static final String OK = "ok";
+    private static final String REJECTED = "rejected";
+    private static final String CONFLICT = "conflict";
+
+    /**
+     * Runs the simulation.
+     *
+     * @param args optionally the number of desks, the measured seconds, the warmup seconds
+     *             and the target number of operations per second of all desks together.
+     * @throws Exception if a desk cannot be waited for.
+     */
+    public static void main(String[] args) throws Exception {
+        int desks = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int warmupSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        double rate = args.length > 3 ? Double.parseDouble(args[3]) : 40;
+
+        PersistenceManager.startup();
         try {
-            User user = em.find(User.class, 477);
-            Copy copy = em.find(Copy.class, 314);
+            int lastBorrowingId = lastBorrowingId();
+            int[] userIds = new UserRepo().getAllUsers().stream().mapToInt(User::getId).toArray();
+            List<AvailableCopyRow> copies = new CopyRepo().getAvailableCopyRows();
+            long books = new BookRepo().countBooks();
+            if (userIds.length == 0 || copies.isEmpty()) {
+                throw new IllegalStateException("The database needs users and available copies; run AddData first.");
+            }
+            System.out.printf("%d desks, %.1f operations per second, %d s warmup and %d s measured, "
+                    + "%d users, %d available copies%n", desks, rate, warmupSeconds, seconds, userIds.length, copies.size());
+
+            long start = System.nanoTime();
+            long recordFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = recordFrom + TimeUnit.SECONDS.toNanos(seconds);
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) * desks / rate);
 
-            if (user == null || copy == null) {
-                throw new IllegalStateException("User or Copy not found.");
+            List<Desk> all = new ArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool(desks);
+            try {
+                List<Future<?>> running = new ArrayList<>();
+                for (int i = 0; i < desks; i++) {
+                    // Spread the desks over the interval so they don't all start their operations together
+                    Desk desk = new Desk(userIds, copies, books, start + interval * i / desks, interval, recordFrom, end);
+                    all.add(desk);
+                    running.add(executor.submit(desk));
+                }
+                for (Future<?> desk : running) {
+                    desk.get();
+                }
+                report(all, seconds);
+            } finally {
+                executor.shutdownNow();
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+                returnLoans(all);
+                deleteBorrowingsAfter(lastBorrowingId);
             }
+        } finally {
+            PersistenceManager.shutdown();
+        }
+    }
 
-            Borrowing borrowing = new Borrowing();
-            borrowing.setUser(user);
-            borrowing.setCopy(copy);
-            borrowing.setBorrowDate(new Date());
+    /**
+     * Prints the latency percentiles and outcomes of every operation, over all desks.
+     *
+     * @param desks the desks that ran.
+     * @param seconds the measured seconds.
+     */
+    private static void report(List<Desk> desks, int seconds) {
+        System.out.printf("%n%-8s %7s %8s %9s %9s %9s %9s %9s   %s%n",
+                "op", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "outcomes");
+        for (Operation operation : Operation.values()) {
+            Histogram latencies = new Histogram(3);
+            Map<String, Integer> outcomes = new TreeMap<>();
+            for (Desk desk : desks) {
+                latencies.add(desk.latencies.get(operation));
+                desk.outcomes.get(operation).forEach((outcome, count) -> outcomes.merge(outcome, count, Integer::sum));
+            }
+            System.out.printf("%-8s %7d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f   %s%n",
+                    operation.name().toLowerCase(),
+                    latencies.getTotalCount(),
+                    latencies.getTotalCount() / (double) seconds,
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()),
+                    outcomes);
+        }
+    }
 
-            em.persist(borrowing);
-            em.flush();
-            em.getTransaction().commit();
+    /**
+     * Returns the copies the desks still have on loan, so the simulation leaves the copies as it found them.
+     *
+     * @param desks the desks that ran.
+     */
+    private static void returnLoans(List<Desk> desks) {
+        BorrowingRepo borrowingRepo = new BorrowingRepo();
+        int returned = 0;
+        for (Desk desk : desks) {
+            for (int copyId : desk.loans) {
+                if (borrowingRepo.returnCopyById(copyId)) {
+                    returned++;
+                }
+            }
+        }
+        System.out.println("Returned " + returned + " copies still on loan.");
+    }
+
+    /**
+     * Gets the highest borrowing ID in the database. Borrowings created later get higher IDs.
+     *
+     * @return the highest borrowing ID, or 0 if there are no borrowings.
+     */
+    private static int lastBorrowingId() {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        try {
+            return em.createQuery("SELECT COALESCE(MAX(b.id), 0) FROM Borrowing b", Integer.class).getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
 
-            System.out.println("Borrowing added successfully: " + borrowing.getId());
-        } catch (Exception e) {
+    /**
+     * Deletes the borrowings created since the simulation started.
+     *
+     * @param lastBorrowingId the highest borrowing ID before the simulation started.
+     */
+    private static void deleteBorrowingsAfter(int lastBorrowingId) {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        em.getTransaction().begin();
+        try {
+            int deleted = em.createQuery("DELETE FROM Borrowing b WHERE b.id > :lastId")
+                    .setParameter("lastId", lastBorrowingId)
+                    .executeUpdate();
+            em.getTransaction().commit();
+            System.out.println("Deleted " + deleted + " borrowings created by the simulation.");
+        } catch (RuntimeException e) {
             em.getTransaction().rollback();
-            e.printStackTrace();
+            throw e;
         } finally {
             em.close();
         }
     }
-}
\ No newline at end of file
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * One simulated desk. It runs its operations one after the other at a fixed interval,
+     * and keeps its own latencies, outcomes and loans, so desks share nothing while running.
+     */
+    static final class Desk implements Runnable {
+        private final int[] userIds;
+        private final List<AvailableCopyRow> copies;
+        private final long books;
+        private final long firstStart;
+        private final long interval;
+        private final long recordFrom;
+        private final long end;
+
+        private final Random random = new Random();
+        private final BookRepo bookRepo = new BookRepo();
+        private final BorrowingRepo borrowingRepo = new BorrowingRepo();
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Map<String, Integer>> outcomes = new EnumMap<>(Operation.class);
+        // The IDs of the copies the desk lent, so it can return them later
+        private final List<Integer> loans = new ArrayList<>();
+
+        /**
+         * Creates a desk.
+         *
+         * @param userIds the IDs of the users who come to the desk.
+         * @param copies the copies that were available when the simulation started.
+         * @param books the number of books in the catalog.
+         * @param firstStart the planned start of the desk's first operation, in {@link System#nanoTime()} time.
+         * @param interval the planned time between two operations, in nanoseconds.
+         * @param recordFrom the end of the warmup; operations planned before it are not recorded.
+         * @param end the end of the simulation; no operation is started after it.
+         */
+        Desk(int[] userIds, List<AvailableCopyRow> copies, long books, long firstStart, long interval,
+             long recordFrom, long end) {
+            this.userIds = userIds;
+            this.copies = copies;
+            this.books = books;
+            this.firstStart = firstStart;
+            this.interval = interval;
+            this.recordFrom = recordFrom;
+            this.end = end;
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new Histogram(3));
+                outcomes.put(operation, new TreeMap<>());
+            }
+        }
+
+        /**
+         * Runs operations until the end of the simulation.
+         */
+        @Override
+        public void run() {
+            for (long planned = firstStart; planned < end; planned += interval) {
+                long wait = planned - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+
+                Operation operation = pick();
+                String outcome = perform(operation);
+                long latency = System.nanoTime() - planned;
+                if (planned >= recordFrom) {
+                    latencies.get(operation).recordValue(latency);
+                    outcomes.get(operation).merge(outcome, 1, Integer::sum);
+                }
+            }
+        }
+
+        /**
+         * Picks the next operation according to the mix. A desk with nothing on loan borrows instead of returning.
+         *
+         * @return the operation to perform.
+         */
+        private Operation pick() {
+            int roll = random.nextInt(100);
+            for (Operation operation : Operation.values()) {
+                roll -= operation.weight;
+                if (roll < 0) {
+                    return operation == Operation.RETURN && loans.isEmpty() ? Operation.BORROW : operation;
+                }
+            }
+            return Operation.BROWSE;
+        }
+
+        /**
+         * Performs one operation through the repositories.
+         *
+         * @param operation the operation to perform.
+         * @return the outcome: ok, rejected, conflict, or the name of the exception it failed with.
+         */
+        private String perform(Operation operation) {
+            try {
+                switch (operation) {
+                    case BORROW -> {
+                        int userId = userIds[random.nextInt(userIds.length)];
+                        AvailableCopyRow copy = copies.get(random.nextInt(copies.size()));
+                        if (!borrowingRepo.borrowCopy(userId, copy.copyId())) {
+                            return REJECTED; // another desk lent it first
+                        }
+                        loans.add(copy.copyId());
+                    }
+                    case CHECKOUT -> {
+                        User user = new User();
+                        user.setId(userIds[random.nextInt(userIds.length)]);
+                        Copy copy = new Copy();
+                        copy.setId(copies.get(random.nextInt(copies.size())).copyId());
+                        Borrowing borrowing = new Borrowing();
+                        borrowing.setUser(user);
+                        borrowing.setCopy(copy);
+                        borrowing.setBorrowDate(new Date());
+                        try {
+                            borrowingRepo.createBorrowing(borrowing);
+                        } catch (IllegalStateException e) {
+                            return REJECTED; // the copy is already lent
+                        }
+                        loans.add(copy.getId());
+                    }
+                    case RETURN -> {
+                        int copyId = loans.remove(random.nextInt(loans.size()));
+                        if (!borrowingRepo.returnCopyById(copyId)) {
+                            return REJECTED;
+                        }
+                    }
+                    case BROWSE -> bookRepo.getBookRowsPage(random.nextInt((int) Math.max(1, books / PAGE_SIZE)) * PAGE_SIZE, PAGE_SIZE);
+                    case HISTORY -> borrowingRepo.getBorrowingRowsByUser(userIds[random.nextInt(userIds.length)]);
+                }
+                return OK;
+            } catch (RuntimeException e) {
+                return ConflictException.isConflict(e) ? CONFLICT : e.getClass().getSimpleName();
+            }
+        }
+    }
+}
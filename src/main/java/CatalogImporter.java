@@ -0,0 +1,443 @@
+import Entities.*;
+import Repositories.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * A command-line tool that imports a large catalog of publishers, books and copies from a file.
+ * <p>
+ * Each row names the publisher, title, author, publication year, ISBN and the number of copies to create.
+ * Two formats are supported:
+ * <ul>
+ *     <li>CSV with a header row: {@code publisher,title,author,year,isbn,copies}, in any order;
+ *     only {@code copies} may be left out</li>
+ *     <li>JSON lines, one object per line with the same field names</li>
+ * </ul>
+ * The file is read one line at a time, so its size does not matter. Every row goes through three stages:
+ * parsing, validation (ISBN format and checksum, duplicate ISBNs, mandatory fields) and publisher lookup
+ * in an in-memory map. Valid rows are written in chunks through {@link BookRepo#importBooks}.
+ * <p>
+ * After each committed chunk the number of the last imported line is written to {@code <file>.checkpoint},
+ * so an interrupted import continues where it stopped when started again. Rows that fail validation are
+ * written to {@code <file>.rejected} together with their line number and the reason.
+ * <p>
+ * Usage: {@code CatalogImporter <file> [csv|jsonl] [chunkSize]}
+ */
+public class CatalogImporter {
+    /**
+     * The supported input formats.
+     */
+    enum Format {
+        CSV, JSONL;
+
+        /**
+         * Picks the format from the file extension, CSV unless the file ends in .json or .jsonl.
+         *
+         * @param file the input file.
+         * @return the format of the file.
+         */
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            return name.endsWith(".jsonl") || name.endsWith(".json") ? JSONL : CSV;
+        }
+    }
+
+    /**
+     * The totals of one run of the importer.
+     *
+     * @param books the number of books imported.
+     * @param copies the number of copies created for them.
+     * @param publishers the number of publishers created.
+     * @param rejected the number of rows written to the rejected-rows file.
+     * @param elapsed the wall-clock time of the run.
+     */
+    record Summary(long books, long copies, long publishers, long rejected, Duration elapsed) {
+    }
+
+    /**
+     * One parsed row of the input file.
+     */
+    private record CatalogRow(String publisher, String title, String author, String year, String isbn, String copies) {
+    }
+
+    /**
+     * Thrown when a row cannot be imported. The message is the reason written to the rejected-rows file.
+     */
+    private static class RejectedRowException extends Exception {
+        RejectedRowException(String reason) {
+            super(reason);
+        }
+    }
+
+    private static final List<String> COLUMNS = List.of("publisher", "title", "author", "year", "isbn", "copies");
+    private static final Set<String> OPTIONAL_COLUMNS = Set.of("copies");
+    private static final int DEFAULT_CHUNK_SIZE = 5000;
+
+    private final Path input;
+    private final Format format;
+    private final int chunkSize;
+    private final PrintStream out;
+    private final Path checkpointFile;
+    private final Path rejectedFile;
+
+    private final BookRepo bookRepo = new BookRepo();
+    private final PublisherRepo publisherRepo = new PublisherRepo();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, Publisher> publishers = new HashMap<>();
+    private final Set<String> knownIsbns = new HashSet<>();
+    private int[] csvColumns;
+
+    /**
+     * Creates an importer for one file.
+     *
+     * @param input the file to import.
+     * @param format the format of the file.
+     * @param chunkSize the number of books committed in one transaction.
+     * @param out where progress messages are printed.
+     */
+    CatalogImporter(Path input, Format format, int chunkSize, PrintStream out) {
+        this.input = input;
+        this.format = format;
+        this.chunkSize = chunkSize;
+        this.out = out;
+        this.checkpointFile = input.resolveSibling(input.getFileName() + ".checkpoint");
+        this.rejectedFile = input.resolveSibling(input.getFileName() + ".rejected");
+    }
+
+    /**
+     * Runs the importer on the file given on the command line.
+     *
+     * @param args the file, and optionally the format and the chunk size.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: CatalogImporter <file> [csv|jsonl] [chunkSize]");
+            System.exit(2);
+        }
+        Path input = Path.of(args[0]);
+        Format format = args.length > 1 ? Format.valueOf(args[1].toUpperCase()) : Format.of(input);
+        int chunkSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CHUNK_SIZE;
+
+        PersistenceManager.startup();
+        try {
+            Summary summary = new CatalogImporter(input, format, chunkSize, System.out).run();
+            System.out.printf("Done: %d books, %d copies, %d new publishers, %d rejected in %.1f s%n",
+                    summary.books(), summary.copies(), summary.publishers(), summary.rejected(),
+                    summary.elapsed().toMillis() / 1000.0);
+        } finally {
+            PersistenceManager.shutdown();
+        }
+    }
+
+    /**
+     * Imports the file, continuing after the last checkpoint if one exists.
+     * The checkpoint file is removed once the whole file has been imported.
+     *
+     * @return the totals of this run.
+     * @throws IOException if the input, checkpoint or rejected-rows file cannot be read or written.
+     * @throws IllegalArgumentException if the CSV header lacks a required column; nothing is imported then.
+     */
+    Summary run() throws IOException {
+        long start = System.nanoTime();
+        if (format == Format.CSV) {
+            try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                csvColumns = readHeader(reader.readLine());
+            }
+        }
+        long resumeAfter = readCheckpoint();
+        if (resumeAfter > 0) {
+            out.printf("Resuming %s after line %d%n", input, resumeAfter);
+        }
+
+        for (Publisher publisher : publisherRepo.getAllPublishers()) {
+            publishers.put(publisher.getName(), publisher);
+        }
+        knownIsbns.addAll(bookRepo.findAllIsbns());
+
+        long books = 0, copies = 0, publishersBefore = publishers.size(), rejected = 0;
+        List<Book> chunk = new ArrayList<>(chunkSize);
+        List<String> chunkRejections = new ArrayList<>();
+        long lineNumber = 0;
+
+        StandardOpenOption mode = resumeAfter > 0 ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter rejects = Files.newBufferedWriter(rejectedFile, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && format == Format.CSV) {
+                    continue; // the header, read before the import started
+                }
+                if (lineNumber <= resumeAfter || line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    Book book = toBook(validate(parse(line)));
+                    chunk.add(book);
+                    copies += book.getCopies().size();
+                } catch (RejectedRowException e) {
+                    chunkRejections.add(lineNumber + "\t" + e.getMessage() + "\t" + line);
+                }
+
+                if (chunk.size() == chunkSize) {
+                    books += commit(chunk, chunkRejections, rejects, lineNumber);
+                    rejected += chunkRejections.size();
+                    chunkRejections.clear();
+                    printProgress(lineNumber, books, rejected, start);
+                }
+            }
+            books += commit(chunk, chunkRejections, rejects, lineNumber);
+            rejected += chunkRejections.size();
+        }
+
+        Files.deleteIfExists(checkpointFile);
+        return new Summary(books, copies, publishers.size() - publishersBefore, rejected,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Writes one chunk of books, then records its rejected rows and the checkpoint.
+     * The checkpoint is only moved once the chunk is committed, so a failed chunk is retried on the next run.
+     *
+     * @param chunk the books to write, emptied afterwards.
+     * @param rejections the rejected rows read since the last checkpoint.
+     * @param rejects the rejected-rows file.
+     * @param lineNumber the number of the last line the chunk covers.
+     * @return the number of books written.
+     * @throws IOException if the rejected-rows or checkpoint file cannot be written.
+     */
+    private long commit(List<Book> chunk, List<String> rejections, BufferedWriter rejects, long lineNumber) throws IOException {
+        // The whole chunk goes in one transaction, so the checkpoint never skips books that were rolled back
+        long imported = chunk.isEmpty() ? 0 : bookRepo.importBooks(chunk.stream(), chunk.size()).imported();
+        chunk.clear();
+
+        for (String rejection : rejections) {
+            rejects.write(rejection);
+            rejects.newLine();
+        }
+        rejects.flush();
+        Files.writeString(checkpointFile, Long.toString(lineNumber));
+        return imported;
+    }
+
+    /**
+     * Prints the number of lines read, books imported and rows rejected, and the current rate.
+     */
+    private void printProgress(long lineNumber, long books, long rejected, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        out.printf("Line %d: %d books imported, %d rejected (%.0f books/s)%n",
+                lineNumber, books, rejected, seconds == 0 ? 0 : books / seconds);
+    }
+
+    /**
+     * Reads the number of the last imported line from the checkpoint file.
+     *
+     * @return the line number, or 0 if there is no checkpoint.
+     * @throws IOException if the checkpoint file cannot be read.
+     */
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(checkpointFile).trim());
+    }
+
+    /**
+     * Maps the columns of the CSV header to their positions.
+     *
+     * @param header the first line of the CSV file, or null if the file is empty.
+     * @return the position of each of {@link #COLUMNS}, or -1 for a missing optional column.
+     * @throws IllegalArgumentException if a required column is missing from the header.
+     */
+    private int[] readHeader(String header) {
+        List<String> names = header == null ? List.of()
+                : splitCsv(header).stream().map(name -> name.trim().toLowerCase()).toList();
+        int[] positions = new int[COLUMNS.size()];
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            positions[i] = names.indexOf(COLUMNS.get(i));
+            if (positions[i] < 0 && !OPTIONAL_COLUMNS.contains(COLUMNS.get(i))) {
+                missing.add(COLUMNS.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("The CSV header of " + input + " lacks the columns " + String.join(", ", missing));
+        }
+        return positions;
+    }
+
+    /**
+     * Parsing stage: turns a line of the input file into a row.
+     *
+     * @param line the line to parse.
+     * @return the parsed row.
+     * @throws RejectedRowException if the line is malformed.
+     */
+    private CatalogRow parse(String line) throws RejectedRowException {
+        if (format == Format.JSONL) {
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                return new CatalogRow(text(node, "publisher"), text(node, "title"), text(node, "author"),
+                        text(node, "year"), text(node, "isbn"), text(node, "copies"));
+            } catch (IOException e) {
+                throw new RejectedRowException("Malformed JSON");
+            }
+        }
+
+        List<String> fields = splitCsv(line);
+        String[] values = new String[COLUMNS.size()];
+        for (int i = 0; i < values.length; i++) {
+            int position = csvColumns[i];
+            values[i] = position >= 0 && position < fields.size() ? fields.get(position).trim() : null;
+        }
+        return new CatalogRow(values[0], values[1], values[2], values[3], values[4], values[5]);
+    }
+
+    /**
+     * Validation stage: checks the mandatory fields and the ISBN of a row.
+     *
+     * @param row the row to check.
+     * @return the same row, with the ISBN normalised to digits only.
+     * @throws RejectedRowException if the row cannot be imported.
+     */
+    private CatalogRow validate(CatalogRow row) throws RejectedRowException {
+        if (isBlank(row.publisher()) || isBlank(row.title()) || isBlank(row.author())
+                || isBlank(row.year()) || isBlank(row.isbn())) {
+            throw new RejectedRowException("Missing mandatory field");
+        }
+        if (!row.year().matches("-?\\d{1,4}")) {
+            throw new RejectedRowException("Invalid publication year");
+        }
+        if (!isBlank(row.copies()) && !row.copies().matches("\\d{1,4}")) {
+            throw new RejectedRowException("Invalid number of copies");
+        }
+
+        String isbn = row.isbn().replace("-", "").replace(" ", "").toUpperCase();
+        if (!isValidIsbn(isbn)) {
+            throw new RejectedRowException("Invalid ISBN");
+        }
+        if (!knownIsbns.add(isbn)) {
+            throw new RejectedRowException("Duplicate ISBN");
+        }
+        return new CatalogRow(row.publisher(), row.title(), row.author(), row.year(), isbn, row.copies());
+    }
+
+    /**
+     * Publisher lookup stage: builds the book and its copies, resolving the publisher by name.
+     * Publishers not yet in the database are created on first use.
+     *
+     * @param row a validated row.
+     * @return the new book, with its copies.
+     */
+    private Book toBook(CatalogRow row) {
+        Publisher publisher = publishers.computeIfAbsent(row.publisher(), name -> {
+            Publisher created = new Publisher();
+            created.setName(name);
+            publisherRepo.createPublisher(created);
+            return created;
+        });
+
+        Book book = new Book();
+        book.setTitle(row.title());
+        book.setAuthor(row.author());
+        book.setPublisherEntity(publisher);
+        book.setPublicationYear(Integer.parseInt(row.year()));
+        book.setIsbn(row.isbn());
+
+        int numberOfCopies = isBlank(row.copies()) ? 0 : Integer.parseInt(row.copies());
+        List<Copy> copies = new ArrayList<>(numberOfCopies);
+        for (int i = 1; i <= numberOfCopies; i++) {
+            Copy copy = new Copy();
+            copy.setBook(book);
+            copy.setCopyNumber(i);
+            copy.setStatus(CopyStatus.AVAILABLE);
+            copies.add(copy);
+        }
+        book.setCopies(copies);
+        return book;
+    }
+
+    /**
+     * Checks the format and check digit of an ISBN-10 or ISBN-13.
+     *
+     * @param isbn the ISBN without hyphens or spaces.
+     * @return true if the ISBN is valid.
+     */
+    static boolean isValidIsbn(String isbn) {
+        if (isbn.matches("97[89]\\d{10}")) {
+            int sum = 0;
+            for (int i = 0; i < 13; i++) {
+                sum += (isbn.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+            }
+            return sum % 10 == 0;
+        }
+        if (isbn.matches("\\d{9}[\\dX]")) {
+            int sum = 0;
+            for (int i = 0; i < 10; i++) {
+                int digit = isbn.charAt(i) == 'X' ? 10 : isbn.charAt(i) - '0';
+                sum += digit * (10 - i);
+            }
+            return sum % 11 == 0;
+        }
+        return false;
+    }
+
+    /**
+     * Splits a CSV line into fields. Fields may be quoted with double quotes, and a doubled quote
+     * inside a quoted field stands for one quote.
+     *
+     * @param line the line to split.
+     * @return the fields of the line.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText().trim();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -2,6 +2,8 @@ package Entities;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Pattern;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -11,14 +13,17 @@ import java.util.List;
  * A book can have multiple copies in the library.
  */
 @Entity
-@Table(name = "Books")
+@Table(name = "Books", indexes = @Index(name = "idx_books_title", columnList = "title"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Book {
 
     /**
      * The unique identifier for the book.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "Books_SEQ", allocationSize = 50)
     private Integer id;
 
     /**
@@ -61,8 +66,10 @@ public class Book {
     /**
      * The list of copies associated with the book.
      * A book can have multiple copies available in the library.
+     * The collection is kept in the second-level cache together with the book.
      */
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Copy> copies;
 
     /**
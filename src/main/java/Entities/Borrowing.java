@@ -10,15 +10,30 @@ import java.util.Date;
  * and optionally when the book copy is returned.
  */
 @Entity
-@Table(name = "Borrowings")
+@Table(
+        name = "Borrowings",
+        indexes = {
+                @Index(name = "idx_borrowings_copy_return", columnList = "copy_id, returnDate"),
+                @Index(name = "idx_borrowings_user", columnList = "user_id")
+        }
+)
 public class Borrowing {
     /**
      * The unique identifier for the borrowing record.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowing_seq")
+    @SequenceGenerator(name = "borrowing_seq", sequenceName = "Borrowings_SEQ", allocationSize = 50)
     private Integer id;
 
+    /**
+     * The version of the borrowing record, increased by every update.
+     * An update made from an outdated version is rejected instead of overwriting a newer change.
+     */
+    @Version
+    @Column(nullable = false)
+    private Integer version;
+
     /**
      * The user associated with this borrowing record.
      */
@@ -64,6 +79,15 @@ public class Borrowing {
         this.id = id;
     }
 
+    /**
+     * Gets the version of the borrowing record.
+     *
+     * @return the version, or null if the record has not been saved yet.
+     */
+    public Integer getVersion() {
+        return version;
+    }
+
     /**
      * Gets the user associated with this borrowing record.
      * @return the user associated with this borrowing record.
@@ -1,6 +1,8 @@
 package Entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,16 +14,28 @@ import java.util.List;
 @Entity
 @Table(
         name = "Copies",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"book_id", "copyNumber"})
+        uniqueConstraints = @UniqueConstraint(columnNames = {"book_id", "copyNumber"}),
+        indexes = @Index(name = "idx_copies_status", columnList = "status")
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Copy {
     /**
      * The unique identifier for the copy.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "copy_seq")
+    @SequenceGenerator(name = "copy_seq", sequenceName = "Copies_SEQ", allocationSize = 50)
     private Integer id;
 
+    /**
+     * The version of the copy, increased by every update.
+     * An update made from an outdated version is rejected instead of overwriting a newer change.
+     */
+    @Version
+    @Column(nullable = false)
+    private Integer version;
+
     /**
      * The book to which this copy belongs.
      */
@@ -36,10 +50,11 @@ public class Copy {
     private Integer copyNumber;
 
     /**
-     * The status of the copy (e.g., Available, Borrowed).
+     * The status of the copy, stored as its one-letter code.
      */
-    @Column(nullable = false)
-    private String status;
+    @Column(nullable = false, length = 1)
+    @Convert(converter = CopyStatusConverter.class)
+    private CopyStatus status;
 
     /**
      * The list of borrowings associated with this copy.
@@ -79,6 +94,14 @@ public class Copy {
         this.id = id;
     }
 
+    /**
+     * Gets the version of the copy.
+     * @return the version, or null if the copy has not been saved yet.
+     */
+    public Integer getVersion() {
+        return version;
+    }
+
     /**
      * Gets the book to which this copy belongs.
      * @return the book to which this copy belongs.
@@ -112,18 +135,18 @@ public class Copy {
     }
 
     /**
-     * Gets the status of the copy (e.g., Available, Borrowed).
+     * Gets the status of the copy.
      * @return the status of the copy.
      */
-    public String getStatus() {
+    public CopyStatus getStatus() {
         return status;
     }
 
     /**
      * Sets the status of the copy.
-     * @param status the status to set (e.g., Available, Borrowed).
+     * @param status the status to set.
      */
-    public void setStatus(String status) {
+    public void setStatus(CopyStatus status) {
         this.status = status;
     }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package Entities;
+
+/**
+ * The states a copy of a book can be in.
+ * Each state is stored in the database as a one-letter code.
+ */
+public enum CopyStatus {
+    /**
+     * The copy is on the shelf and can be borrowed.
+     */
+    AVAILABLE('A', "Available"),
+    /**
+     * The copy is lent to a user.
+     */
+    BORROWED('B', "Borrowed"),
+    /**
+     * The copy is held for a user and cannot be borrowed by anyone else.
+     */
+    RESERVED('R', "Reserved"),
+    /**
+     * The copy is missing.
+     */
+    LOST('L', "Lost"),
+    /**
+     * The copy is being repaired.
+     */
+    IN_REPAIR('M', "In Repair");
+
+    private final char code;
+    private final String label;
+
+    CopyStatus(char code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    /**
+     * Gets the code the status is stored as.
+     * @return the one-letter code of the status.
+     */
+    public char getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the name of the status as shown to users.
+     * @return the label of the status.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Finds the status stored with the given code.
+     * @param code the one-letter code of the status.
+     * @return the status with that code.
+     * @throws IllegalArgumentException if no status has that code.
+     */
+    public static CopyStatus fromCode(char code) {
+        for (CopyStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown copy status code: " + code);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,31 @@
+package Entities;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a {@link CopyStatus} as its one-letter code, so the status column stays small and cheap to index.
+ */
+@Converter(autoApply = true)
+public class CopyStatusConverter implements AttributeConverter<CopyStatus, String> {
+
+    /**
+     * Converts a status to the code stored in the database.
+     * @param status the status, or null.
+     * @return the one-letter code, or null.
+     */
+    @Override
+    public String convertToDatabaseColumn(CopyStatus status) {
+        return status == null ? null : String.valueOf(status.getCode());
+    }
+
+    /**
+     * Converts a stored code back to its status.
+     * @param code the one-letter code, or null.
+     * @return the status, or null.
+     */
+    @Override
+    public CopyStatus convertToEntityAttribute(String code) {
+        return code == null || code.isEmpty() ? null : CopyStatus.fromCode(code.charAt(0));
+    }
+}
@@ -15,7 +15,8 @@ public class Librarian {
      * The unique identifier for the librarian.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "librarian_seq")
+    @SequenceGenerator(name = "librarian_seq", sequenceName = "Librarians_SEQ", allocationSize = 50)
     private Integer id;
 
     /**
@@ -1,6 +1,8 @@
 package Entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.Set;
 
 /**
@@ -8,13 +10,16 @@ import java.util.Set;
  * A publisher is responsible for producing books and has a unique name, address, and phone number.
  */
 @Entity
-@Table(name = "Publishers")
+@Table(name = "Publishers", indexes = @Index(name = "idx_publishers_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Publisher {
     /**
      * The unique identifier for the publisher.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "publisher_seq")
+    @SequenceGenerator(name = "publisher_seq", sequenceName = "Publishers_SEQ", allocationSize = 50)
     private Integer id;
 
     /**
@@ -17,7 +17,8 @@ public class User {
      * The unique identifier for the user.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "Users_SEQ", allocationSize = 50)
     private Integer id;
 
     /**
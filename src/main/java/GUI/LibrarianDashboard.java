@@ -1,15 +1,15 @@
 package GUI;
 
 import Entities.Book;
-import Entities.Borrowing;
 import Entities.Copy;
-import Entities.User;
+import Entities.CopyStatus;
 import Repositories.*;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.stream.IntStream;
 
 /**
  * Represents the dashboard for librarians.
@@ -20,6 +20,15 @@ public class LibrarianDashboard extends JFrame {
     private JPanel bookPanel, userPanel, borrowedBookPanel;
     private JTable bookTable, userTable, borrowedBookTable;
     private JButton addBookButton, editBookButton, deleteBookButton;
+    private PagedTableModel<BookRow> bookTableModel;
+    private PagedTableModel<UserRow> userTableModel;
+    private PagedTableModel<BorrowingRow> borrowedBookTableModel;
+    private final long createdAt = System.nanoTime();
+    private boolean painted;
+    private final PanelLoader panelLoader = new PanelLoader("Librarian Dashboard");
+
+    private static final int PAGE_SIZE = 100;
+    private static final int CACHED_PAGES = 10;
 
     private final BookRepo bookRepo = new BookRepo();
     private final UserRepo userRepo = new UserRepo();
@@ -61,6 +70,42 @@ public class LibrarianDashboard extends JFrame {
         booksButton.addActionListener(e -> showPanel("Books"));
         usersButton.addActionListener(e -> showPanel("Users"));
         borrowedBooksButton.addActionListener(e -> showPanel("Borrowed Books"));
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                dispose(); // stop the table loaders before the application exits
+            }
+        });
+    }
+
+    /**
+     * Closes the dashboard and stops the background loaders of its tables.
+     */
+    @Override
+    public void dispose() {
+        for (PagedTableModel<?> model : new PagedTableModel<?>[]{bookTableModel, userTableModel, borrowedBookTableModel}) {
+            if (model != null) {
+                model.dispose();
+            }
+        }
+        super.dispose();
+    }
+
+    /**
+     * Paints the dashboard. The first paint of the first dashboard completes the startup profile.
+     *
+     * @param g the graphics context.
+     */
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            if (StartupProfile.record(StartupProfile.DASHBOARD_PAINT, createdAt)) {
+                StartupProfile.logSummary();
+            }
+        }
     }
 
     /**
@@ -133,60 +178,69 @@ public class LibrarianDashboard extends JFrame {
     }
 
     /**
-     * Populates the table with a list of books.
+     * Populates the table with the books, or reloads it if it is already shown.
+     * The row count is read in the background and rows are read page by page as the user scrolls.
      */
     private void populateBookTable() {
-        String[] columns = {"ID", "Title", "Author", "Publisher", "Publication Year", "ISBN"};
-        List<Book> books = bookRepo.getAllBooks();
-        String[][] data = new String[books.size()][6];
-
-        for (int i = 0; i < books.size(); i++) {
-            Book book = books.get(i);
-            data[i][0] = String.valueOf(book.getId());
-            data[i][1] = book.getTitle();
-            data[i][2] = book.getAuthor();
-            data[i][3] = book.getPublisherEntity().getName();
-            data[i][4] = String.valueOf(book.getPublicationYear());
-            data[i][5] = book.getIsbn();
+        if (bookTableModel != null) {
+            panelLoader.track("Books", bookTableModel.refresh());
+            return;
         }
-
-        bookTable.setModel(new DefaultTableModel(data, columns));
+        String[] columns = {"ID", "Title", "Author", "Publisher", "Publication Year", "ISBN"};
+        bookTableModel = new PagedTableModel<>(columns, bookRepo::countBooks, bookRepo::getBookRowsPage,
+                book -> new String[]{
+                        String.valueOf(book.id()),
+                        book.title(),
+                        book.author(),
+                        book.publisherName(),
+                        String.valueOf(book.publicationYear()),
+                        book.isbn()
+                }, PAGE_SIZE, CACHED_PAGES);
+        bookTable.setModel(bookTableModel);
+        panelLoader.track("Books", bookTableModel.refresh());
     }
 
+    /**
+     * Populates the table with the users, or reloads it if it is already shown.
+     * The row count is read in the background and rows are read page by page as the user scrolls.
+     */
     private void populateUserTable() {
-        String[] columns = {"ID", "Name", "Email", "Phone", "Address"};
-        List<User> users = userRepo.getAllUsers();
-        String[][] data = new String[users.size()][5];
-
-        for (int i = 0; i < users.size(); i++) {
-            User user = users.get(i);
-            data[i][0] = String.valueOf(user.getId());
-            data[i][1] = user.getName();
-            data[i][2] = user.getEmail();
-            data[i][3] = user.getPhoneNumber();
-            data[i][4] = user.getAddress();
+        if (userTableModel != null) {
+            panelLoader.track("Users", userTableModel.refresh());
+            return;
         }
-
-        userTable.setModel(new DefaultTableModel(data, columns));
+        String[] columns = {"ID", "Name", "Email", "Phone", "Address"};
+        userTableModel = new PagedTableModel<>(columns, userRepo::countUsers, userRepo::getUserRowsPage,
+                user -> new String[]{
+                        String.valueOf(user.id()),
+                        user.name(),
+                        user.email(),
+                        user.phoneNumber(),
+                        user.address()
+                }, PAGE_SIZE, CACHED_PAGES);
+        userTable.setModel(userTableModel);
+        panelLoader.track("Users", userTableModel.refresh());
     }
 
     /**
-     * Populates the table with a list of users.
+     * Populates the table with the borrowings, or reloads it if it is already shown.
+     * The row count is read in the background and rows are read page by page as the user scrolls.
      */
     private void populateBorrowedBookTable() {
-        String[] columns = {"User Name", "Book Title", "Borrow Date", "Return Date"};
-        List<Borrowing> borrowings = borrowingRepo.getAllBorrowings();
-        String[][] data = new String[borrowings.size()][4];
-
-        for (int i = 0; i < borrowings.size(); i++) {
-            Borrowing borrowing = borrowings.get(i);
-            data[i][0] = borrowing.getUser().getName();
-            data[i][1] = borrowing.getCopy().getBook().getTitle();
-            data[i][2] = borrowing.getBorrowDate().toString();
-            data[i][3] = borrowing.getReturnDate() != null ? borrowing.getReturnDate().toString() : "Not Returned";
+        if (borrowedBookTableModel != null) {
+            panelLoader.track("Borrowed Books", borrowedBookTableModel.refresh());
+            return;
         }
-
-        borrowedBookTable.setModel(new DefaultTableModel(data, columns));
+        String[] columns = {"User Name", "Book Title", "Borrow Date", "Return Date"};
+        borrowedBookTableModel = new PagedTableModel<>(columns, borrowingRepo::countBorrowings, borrowingRepo::getBorrowingRowsPage,
+                borrowing -> new String[]{
+                        borrowing.userName(),
+                        borrowing.bookTitle(),
+                        borrowing.borrowDate().toString(),
+                        borrowing.returnDate() != null ? borrowing.returnDate().toString() : "Not Returned"
+                }, PAGE_SIZE, CACHED_PAGES);
+        borrowedBookTable.setModel(borrowedBookTableModel);
+        panelLoader.track("Borrowed Books", borrowedBookTableModel.refresh());
     }
 
     /**
@@ -230,13 +284,13 @@ public class LibrarianDashboard extends JFrame {
                 JOptionPane.showMessageDialog(this, "Book added successfully.");
 
                 int numberOfCopies = Integer.parseInt(copiesField.getText());
-                for (int i = 1; i <= numberOfCopies; i++) {
+                copyRepo.createCopies(IntStream.rangeClosed(1, numberOfCopies).mapToObj(i -> {
                     Copy copy = new Copy();
                     copy.setBook(book);
                     copy.setCopyNumber(i);
-                    copy.setStatus("Available");
-                    copyRepo.createCopy(copy);
-                }
+                    copy.setStatus(CopyStatus.AVAILABLE);
+                    return copy;
+                }));
                 JOptionPane.showMessageDialog(this, numberOfCopies + " copies created successfully.");
 
                 populateBookTable();
@@ -256,6 +310,9 @@ public class LibrarianDashboard extends JFrame {
             JOptionPane.showMessageDialog(this, "Please select a book to edit.");
             return;
         }
+        if (PagedTableModel.isPlaceholder(bookTable.getValueAt(selectedRow, 0))) {
+            return; // the row is still being loaded or could not be loaded
+        }
 
         int bookId = Integer.parseInt((String) bookTable.getValueAt(selectedRow, 0));
         Book book = bookRepo.findBookById(bookId);
@@ -308,6 +365,9 @@ public class LibrarianDashboard extends JFrame {
             JOptionPane.showMessageDialog(this, "Please select a book to delete.");
             return;
         }
+        if (PagedTableModel.isPlaceholder(bookTable.getValueAt(selectedRow, 0))) {
+            return; // the row is still being loaded or could not be loaded
+        }
 
         int bookId = Integer.parseInt((String) bookTable.getValueAt(selectedRow, 0));
         bookRepo.deleteBook(bookId);
@@ -1,21 +1,28 @@
 package GUI;
 
 import Entities.User;
+import Repositories.PersistenceManager;
+import Repositories.StartupProfile;
 import Repositories.UserRepo;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.concurrent.CompletionException;
 
 /**
  * This class handles the login screen for the library system.
  * Users can log in as either a librarian or a regular user.
+ * The screen is shown while the persistence layer boots in the background; a login waits for the boot to finish.
  */
 public class LoginScreen extends JFrame {
+    private static long mainStart = System.nanoTime();
+
     private JTextField usernameField;
     private JPasswordField passwordField;
     private JButton loginButton;
+    private boolean painted;
 
-    private UserRepo userRepo = new UserRepo();
+    private final UserRepo userRepo = new UserRepo();
 
     /**
      * Creates a new login screen for the library system.
@@ -64,38 +71,78 @@ public class LoginScreen extends JFrame {
         loginButton.addActionListener(e -> handleLogin());
     }
 
+    /**
+     * Paints the screen and records the first paint in the startup profile.
+     *
+     * @param g the graphics context.
+     */
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            StartupProfile.record(StartupProfile.FIRST_PAINT, mainStart);
+        }
+    }
+
     /**
      * Handles the login process when the login button is clicked.
      * Validates the username and password and determines if the user is a librarian or a regular user.
+     * The database is queried in the background, after the persistence layer has finished booting.
      */
     private void handleLogin() {
         String userIdInput = usernameField.getText();
         String password = new String(passwordField.getPassword());
 
+        int userId;
         try {
-            int userId = Integer.parseInt(userIdInput);
-
-            // to find the user in the database
-            User user = userRepo.findUserById(userId);
-
-            if (user != null && password.equals(String.valueOf(userId))) {
-                // to check if the user is a librarian or a regular user
-                if (userRepo.isLibrarian(userId)) {
-                    JOptionPane.showMessageDialog(this, "Librarian login successful!");
-                    new LibrarianDashboard().setVisible(true);
-                } else {
-                    JOptionPane.showMessageDialog(this, "User login successful!");
-                    new UserDashboard(userId).setVisible(true);
-                }
-                this.dispose(); // to close the login screen
-            } else {
-                JOptionPane.showMessageDialog(this, "Invalid credentials.");
-            }
+            userId = Integer.parseInt(userIdInput);
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "Invalid User ID. Please enter a number.");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "An error occurred during login: " + e.getMessage());
+            return;
+        }
+
+        loginButton.setEnabled(false);
+        PersistenceManager.startupInBackground()
+                .thenApplyAsync(booted -> checkCredentials(userId, password))
+                .whenComplete((librarian, error) -> SwingUtilities.invokeLater(() -> {
+                    loginButton.setEnabled(true);
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        JOptionPane.showMessageDialog(this, "An error occurred during login: " + cause.getMessage());
+                    } else if (librarian == null) {
+                        JOptionPane.showMessageDialog(this, "Invalid credentials.");
+                    } else {
+                        // to check if the user is a librarian or a regular user
+                        if (librarian) {
+                            JOptionPane.showMessageDialog(this, "Librarian login successful!");
+                            new LibrarianDashboard().setVisible(true);
+                        } else {
+                            JOptionPane.showMessageDialog(this, "User login successful!");
+                            new UserDashboard(userId).setVisible(true);
+                        }
+                        this.dispose(); // to close the login screen
+                    }
+                }));
+    }
+
+    /**
+     * Looks up the user and checks the password. Runs on a background thread.
+     *
+     * @param userId the entered user ID.
+     * @param password the entered password.
+     * @return true for a librarian, false for a regular user, or null if the credentials are invalid.
+     */
+    private Boolean checkCredentials(int userId, String password) {
+        long start = System.nanoTime();
+        // to find the user in the database
+        User user = userRepo.findUserById(userId);
+        StartupProfile.record(StartupProfile.FIRST_QUERY, start);
+
+        if (user == null || !password.equals(String.valueOf(userId))) {
+            return null;
         }
+        return userRepo.isLibrarian(userId);
     }
 
     /**
@@ -104,6 +151,9 @@ public class LoginScreen extends JFrame {
      * @param args command-line arguments (not used).
      */
     public static void main(String[] args) {
+        StartupProfile.recordJvmStart();
+        mainStart = System.nanoTime();
+        PersistenceManager.startupInBackground();
         javax.swing.SwingUtilities.invokeLater(() -> {
             LoginScreen loginScreen = new LoginScreen();
             loginScreen.setVisible(true);
@@ -0,0 +1,257 @@
+package GUI;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A table model that loads its rows from the database one page at a time, only when they are shown.
+ * <p>
+ * Only the row count is read up front, in the background, so a table opens immediately whatever its size.
+ * Until the count is known an empty table shows a single placeholder row. When the table asks
+ * for a cell of a page that is not loaded yet, the page is fetched on a background thread and the cell shows
+ * a placeholder until it arrives. The page after it is fetched as well, so scrolling down rarely shows a
+ * placeholder. At most a fixed number of pages are kept; the least recently shown page is dropped first.
+ * A page that fails to load shows an error row instead and is not fetched again until the next {@link #refresh()}.
+ * <p>
+ * Like every Swing model it must only be used from the event dispatch thread. Pages are fetched on the
+ * model's own background thread and handed back to the event dispatch thread. Call {@link #dispose()} when
+ * the table is closed to stop that thread.
+ *
+ * @param <T> the type of entity shown in each row.
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+    /**
+     * Loads one page of entities.
+     *
+     * @param <T> the type of entity.
+     */
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        /**
+         * Loads the entities at the given position.
+         *
+         * @param offset the number of entities to skip.
+         * @param limit the maximum number of entities to return.
+         * @return the entities of the page.
+         */
+        List<T> load(int offset, int limit);
+    }
+
+    /**
+     * The value shown in cells whose page is still being loaded.
+     */
+    public static final String LOADING = "Loading...";
+
+    /**
+     * The start of the value shown in the first cell of a row that could not be loaded.
+     */
+    public static final String LOAD_FAILED = "Could not load";
+
+    private static final Logger LOGGER = Logger.getLogger(PagedTableModel.class.getName());
+
+    private final String[] columns;
+    private final LongSupplier rowCounter;
+    private final PageLoader<T> loader;
+    private final Function<T, String[]> rowMapper;
+    private final int pageSize;
+    private final Map<Integer, String[][]> pages;
+    private final Set<Integer> pending = new HashSet<>();
+    private final Map<Integer, String> failed = new HashMap<>();
+    private final ExecutorService executor;
+
+    private int rowCount;
+    private boolean counting;
+    private int generation;
+
+    /**
+     * Creates an empty model. Call {@link #refresh()} to load it.
+     *
+     * @param columns the column names.
+     * @param rowCounter counts the rows of the table.
+     * @param loader loads one page of entities, in a stable order.
+     * @param rowMapper turns an entity into the cell values of its row.
+     * @param pageSize the number of rows loaded at once.
+     * @param maxPages the number of pages kept in memory.
+     */
+    public PagedTableModel(String[] columns, LongSupplier rowCounter, PageLoader<T> loader,
+                           Function<T, String[]> rowMapper, int pageSize, int maxPages) {
+        this.columns = columns;
+        this.rowCounter = rowCounter;
+        this.loader = loader;
+        this.rowMapper = rowMapper;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(maxPages, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String[][]> eldest) {
+                return size() > maxPages;
+            }
+        };
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PagedTableModel-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return counting && rowCount == 0 ? 1 : rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Checks whether a cell value is a placeholder rather than data, because its row is still being loaded
+     * or could not be loaded.
+     *
+     * @param value the value of the first cell of a row.
+     * @return true if the row holds no data.
+     */
+    public static boolean isPlaceholder(Object value) {
+        return LOADING.equals(value) || value instanceof String text && text.startsWith(LOAD_FAILED);
+    }
+
+    /**
+     * Gets the value of a cell. If the row is not loaded yet, its page is requested and
+     * {@link #LOADING} is returned; the table repaints the row once the page arrives.
+     * If the page could not be loaded, the first cell shows the error.
+     *
+     * @param row the row index.
+     * @param column the column index.
+     * @return the cell value, {@link #LOADING} or the error.
+     */
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (counting && rowCount == 0) {
+            return column == 0 ? LOADING : null;
+        }
+        int page = row / pageSize;
+        String[][] rows = pages.get(page);
+        if (rows == null && failed.containsKey(page)) {
+            return column == 0 ? LOAD_FAILED + ": " + failed.get(page) : null;
+        }
+        if (rows == null) {
+            request(page);
+            return LOADING;
+        }
+        if ((page + 1) * pageSize < rowCount && !pages.containsKey(page + 1)) {
+            request(page + 1); // prefetch the next page while this one is being looked at
+        }
+        int index = row - page * pageSize;
+        return index < rows.length ? rows[index][column] : null;
+    }
+
+    /**
+     * Drops all loaded pages and reads the row count again in the background, so the table shows the current data.
+     * Call this to load the model the first time and after the underlying table was changed.
+     *
+     * @return a future completed on the event dispatch thread once the new row count is shown.
+     */
+    public CompletableFuture<Void> refresh() {
+        int requestedGeneration = ++generation;
+        pages.clear();
+        pending.clear();
+        failed.clear();
+        counting = true;
+        fireTableDataChanged();
+
+        CompletableFuture<Void> counted = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                int count = (int) rowCounter.getAsLong();
+                SwingUtilities.invokeLater(() -> {
+                    if (requestedGeneration == generation) {
+                        counting = false;
+                        rowCount = count;
+                        fireTableDataChanged();
+                    }
+                    counted.complete(null);
+                });
+            } catch (RuntimeException e) {
+                SwingUtilities.invokeLater(() -> {
+                    if (requestedGeneration == generation) {
+                        counting = false;
+                        fireTableDataChanged();
+                    }
+                    counted.completeExceptionally(e);
+                });
+            }
+        });
+        return counted;
+    }
+
+    /**
+     * Stops the background loader. The model shows no new pages afterwards.
+     * Call this when the window showing the table is closed.
+     */
+    public void dispose() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Fetches a page on the background thread unless it is already on its way or failed to load.
+     *
+     * @param page the page number.
+     */
+    private void request(int page) {
+        if (failed.containsKey(page) || executor.isShutdown() || !pending.add(page)) {
+            return;
+        }
+        int requestedGeneration = generation;
+        executor.execute(() -> {
+            String[][] rows = null;
+            String error = null;
+            try {
+                rows = loader.load(page * pageSize, pageSize).stream().map(rowMapper).toArray(String[][]::new);
+            } catch (RuntimeException e) {
+                error = String.valueOf(e.getMessage());
+                LOGGER.log(Level.WARNING, "Could not load rows " + page * pageSize + " to " + (page + 1) * pageSize, e);
+            }
+            String[][] loaded = rows;
+            String loadError = error;
+            SwingUtilities.invokeLater(() -> deliver(page, loaded, loadError, requestedGeneration));
+        });
+    }
+
+    /**
+     * Stores a fetched page, or the error it failed with, and repaints its rows.
+     * Pages fetched before the last {@link #refresh()} are dropped.
+     *
+     * @param page the page number.
+     * @param rows the rows of the page, or null if loading failed.
+     * @param error the reason loading failed, or null if it succeeded.
+     * @param requestedGeneration the refresh generation the page was requested in.
+     */
+    private void deliver(int page, String[][] rows, String error, int requestedGeneration) {
+        if (requestedGeneration != generation) {
+            return;
+        }
+        pending.remove(page);
+        if (rows == null) {
+            failed.put(page, error);
+        } else {
+            pages.put(page, rows);
+        }
+        int first = page * pageSize;
+        int last = Math.min(rowCount, first + pageSize) - 1;
+        if (first <= last) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package GUI;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Fills the tables of a dashboard in the background so the window shows up immediately.
+ * Each table shows a placeholder row until its data arrives. All loads run at the same time,
+ * and the time each panel took to load is logged at FINE level. When a table is loaded again before
+ * an earlier load finished, the earlier result is dropped so it can't overwrite the newer one.
+ * All methods must be called on the event dispatch thread.
+ */
+final class PanelLoader {
+    private static final Logger LOGGER = Logger.getLogger(PanelLoader.class.getName());
+
+    private final String dashboard;
+    private final Map<JTable, Integer> generations = new HashMap<>();
+
+    /**
+     * Creates a loader for one dashboard.
+     *
+     * @param dashboard the name of the dashboard, used in the logged load times.
+     */
+    PanelLoader(String dashboard) {
+        this.dashboard = dashboard;
+    }
+
+    /**
+     * Shows a placeholder in a table, starts loading its rows and fills the table when they arrive.
+     * If loading fails, the table shows the error instead. Results of a load that was superseded by a
+     * later load of the same table are dropped.
+     *
+     * @param panel the name of the panel the table belongs to.
+     * @param table the table to fill.
+     * @param columns the column names.
+     * @param rows starts loading the rows in the background.
+     * @param rowMapper turns a row into its cell values.
+     * @param <R> the type of the loaded rows.
+     */
+    <R> void load(String panel, JTable table, String[] columns, Supplier<CompletableFuture<List<R>>> rows,
+                  Function<R, String[]> rowMapper) {
+        int generation = generations.merge(table, 1, Integer::sum);
+        table.setModel(placeholder(columns, PagedTableModel.LOADING));
+        long start = System.nanoTime();
+        rows.get().whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (generations.get(table) != generation) {
+                return; // the table was loaded again in the meantime
+            }
+            if (error != null) {
+                table.setModel(placeholder(columns, PagedTableModel.LOAD_FAILED + ": " + error.getMessage()));
+            } else {
+                table.setModel(new DefaultTableModel(result.stream().map(rowMapper).toArray(String[][]::new), columns));
+            }
+            record(panel, start);
+        }));
+    }
+
+    /**
+     * Records the load time of a panel that loads itself, such as one backed by a {@link PagedTableModel}.
+     *
+     * @param panel the name of the panel.
+     * @param loading a future that completes on the event dispatch thread when the panel is loaded.
+     */
+    void track(String panel, CompletableFuture<?> loading) {
+        long start = System.nanoTime();
+        loading.whenComplete((result, error) -> record(panel, start));
+    }
+
+    private void record(String panel, long start) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        LOGGER.fine(() -> dashboard + ": loaded " + panel + " in " + elapsed.toMillis() + " ms");
+    }
+
+    private static DefaultTableModel placeholder(String[] columns, String message) {
+        String[] row = new String[columns.length];
+        row[0] = message;
+        return new DefaultTableModel(new String[][]{row}, columns);
+    }
+}
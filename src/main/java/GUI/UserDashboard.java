@@ -1,19 +1,9 @@
 package GUI;
 
-import Entities.Book;
-import Entities.Borrowing;
-import Entities.Copy;
-import Entities.User;
-import Repositories.BorrowingRepo;
-import Repositories.CopyRepo;
-import Repositories.UserRepo;
+import Repositories.*;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.Date;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Represents the user dashboard where users can view available books, all books in the library, and their borrowing history.
@@ -25,9 +15,10 @@ public class UserDashboard extends JFrame {
     private JTable allBooksTable, availableBookTable, borrowingHistoryTable;
     private JButton borrowButton, returnButton;
 
-    private final CopyRepo copyRepo = new CopyRepo();
-    private final UserRepo userRepo = new UserRepo();
-    private final BorrowingRepo borrowingRepo = new BorrowingRepo();
+    private final AsyncRepositories asyncRepositories = new AsyncRepositories();
+    private final long createdAt = System.nanoTime();
+    private boolean painted;
+    private final PanelLoader panelLoader = new PanelLoader("User Dashboard");
 
     private final int currentUserId;
 
@@ -71,6 +62,22 @@ public class UserDashboard extends JFrame {
         borrowingHistoryButton.addActionListener(e -> showPanel("Borrowing History"));
     }
 
+    /**
+     * Paints the dashboard. The first paint of the first dashboard completes the startup profile.
+     *
+     * @param g the graphics context.
+     */
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            if (StartupProfile.record(StartupProfile.DASHBOARD_PAINT, createdAt)) {
+                StartupProfile.logSummary();
+            }
+        }
+    }
+
     /**
      * Creates the panel displaying all books in the library, without duplicates.
      *
@@ -131,71 +138,54 @@ public class UserDashboard extends JFrame {
     }
 
     /**
-     * Populates the table with all books in the library, ensuring no duplicates.
+     * Loads all books in the library that have copies, each book once, in the background.
      */
     private void populateAllBooksTable() {
         String[] columns = {"Title", "Author", "ISBN", "Publisher", "Publication Year"};
-        List<Book> books = copyRepo.getAllCopies()
-                .stream()
-                .map(Copy::getBook)
-                .distinct()
-                .collect(Collectors.toList());
-
-        String[][] data = new String[books.size()][5];
-        for (int i = 0; i < books.size(); i++) {
-            Book book = books.get(i);
-            data[i][0] = book.getTitle();
-            data[i][1] = book.getAuthor();
-            data[i][2] = book.getIsbn();
-            data[i][3] = book.getPublisherEntity().getName();
-            data[i][4] = String.valueOf(book.getPublicationYear());
-        }
-
-        allBooksTable.setModel(new DefaultTableModel(data, columns));
+        panelLoader.load("All Books", allBooksTable, columns, asyncRepositories::getBookRowsWithCopiesAsync,
+                book -> new String[]{
+                        book.title(),
+                        book.author(),
+                        book.isbn(),
+                        book.publisherName(),
+                        String.valueOf(book.publicationYear())
+                });
     }
 
     /**
-     * Populates the table with all currently available book copies for borrowing.
+     * Loads all currently available book copies for borrowing in the background.
      */
     private void populateAvailableBookTable() {
-        String[] columns = {"Book ID", "Title", "Author", "ISBN", "Copy Number"};
-        List<Copy> availableCopies = copyRepo.getAvailableCopies();
-
-        String[][] data = new String[availableCopies.size()][5];
-        for (int i = 0; i < availableCopies.size(); i++) {
-            Book book = availableCopies.get(i).getBook();
-            data[i][0] = String.valueOf(book.getId());
-            data[i][1] = book.getTitle();
-            data[i][2] = book.getAuthor();
-            data[i][3] = book.getIsbn();
-            data[i][4] = String.valueOf(availableCopies.get(i).getCopyNumber());
-        }
-
-        availableBookTable.setModel(new DefaultTableModel(data, columns));
+        String[] columns = {"Book ID", "Title", "Author", "ISBN", "Copy Number", "Copy ID"};
+        panelLoader.load("Available Books", availableBookTable, columns, asyncRepositories::getAvailableCopyRowsAsync,
+                copy -> new String[]{
+                        String.valueOf(copy.bookId()),
+                        copy.title(),
+                        copy.author(),
+                        copy.isbn(),
+                        String.valueOf(copy.copyNumber()),
+                        String.valueOf(copy.copyId())
+                });
     }
 
     /**
-     * Populates the table with the borrowing history of the current user.
+     * Loads the borrowing history of the current user in the background.
      */
     private void populateBorrowingHistoryTable() {
-        String[] columns = {"Title", "Borrow Date", "Return Date"};
-        List<Borrowing> borrowings = borrowingRepo.getBorrowingsByUser(currentUserId);
-
-        String[][] data = new String[borrowings.size()][3];
-        for (int i = 0; i < borrowings.size(); i++) {
-            Borrowing borrowing = borrowings.get(i);
-            data[i][0] = borrowing.getCopy().getBook().getTitle();
-            data[i][1] = borrowing.getBorrowDate().toString();
-            data[i][2] = borrowing.getReturnDate() == null ? "Not Returned" : borrowing.getReturnDate().toString();
-        }
-
-        borrowingHistoryTable.setModel(new DefaultTableModel(data, columns));
+        String[] columns = {"Borrowing ID", "Title", "Borrow Date", "Return Date"};
+        panelLoader.load("Borrowing History", borrowingHistoryTable, columns,
+                () -> asyncRepositories.getBorrowingRowsByUserAsync(currentUserId),
+                borrowing -> new String[]{
+                        String.valueOf(borrowing.id()),
+                        borrowing.bookTitle(),
+                        borrowing.borrowDate().toString(),
+                        borrowing.returnDate() == null ? "Not Returned" : borrowing.returnDate().toString()
+                });
     }
 
     /**
      * Handles the borrowing of a selected book copy by the current user.
-     * Validates the selected book's availability and updates its status to "Borrowed".
-     * A new borrowing record is created and associated with the current user.
+     * The copy is only lent if it is still available; a copy taken by someone else in the meantime is reported as unavailable.
      * Updates the Available Books and Borrowing History tables upon successful operation.
      * If an error occurs, displays an appropriate error message.
      */
@@ -205,48 +195,26 @@ public class UserDashboard extends JFrame {
             JOptionPane.showMessageDialog(this, "Please select a book to borrow.");
             return;
         }
+        if (PagedTableModel.isPlaceholder(availableBookTable.getValueAt(selectedRow, 0))) {
+            return; // the table is still being loaded or could not be loaded
+        }
 
-        new SwingWorker<Void, Void>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                int copyNumber = Integer.parseInt((String) availableBookTable.getValueAt(selectedRow, 4));
-                int bookId = Integer.parseInt((String) availableBookTable.getValueAt(selectedRow, 0));
-                Copy selectedCopy = copyRepo.findCopyByNumberWithBorrowings(copyNumber, bookId);
-
-                if (selectedCopy == null || !selectedCopy.getStatus().equals("Available")) {
-                    throw new IllegalStateException("The book is not available.");
-                }
-
-                Borrowing borrowing = new Borrowing();
-                borrowing.setUser(userRepo.findUserById(currentUserId));
-                borrowing.setCopy(selectedCopy);
-                borrowing.setBorrowDate(new Date());
-                borrowingRepo.createBorrowing(borrowing);
-
-                selectedCopy.setStatus("Borrowed");
-                copyRepo.updateCopy(selectedCopy);
-
-                return null;
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    get();
+        int copyId = Integer.parseInt((String) availableBookTable.getValueAt(selectedRow, 5));
+        asyncRepositories.borrowAsync(currentUserId, copyId)
+                .whenComplete((done, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        JOptionPane.showMessageDialog(UserDashboard.this, "Error borrowing book: " + error.getMessage());
+                        return;
+                    }
                     JOptionPane.showMessageDialog(UserDashboard.this, "Book borrowed successfully!");
                     populateAvailableBookTable();
                     populateBorrowingHistoryTable();
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(UserDashboard.this, "Error borrowing book: " + e.getMessage());
-                }
-            }
-        }.execute();
+                }));
     }
 
     /**
      * Handles the return of a borrowed book by the current user.
-     * Validates the selected borrowing record and updates the book's status to "Available".
-     * Sets the return date of the borrowing record to the current date.
+     * Sets the return date of the selected borrowing and makes its copy available again.
      * Updates the Available Books and Borrowing History tables upon successful operation.
      * If an error occurs, displays an appropriate error message.
      */
@@ -256,38 +224,21 @@ public class UserDashboard extends JFrame {
             JOptionPane.showMessageDialog(this, "Please select a borrowing record to return.");
             return;
         }
+        if (PagedTableModel.isPlaceholder(borrowingHistoryTable.getValueAt(selectedRow, 0))) {
+            return; // the table is still being loaded or could not be loaded
+        }
 
-        new SwingWorker<Void, Void>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                String title = (String) borrowingHistoryTable.getValueAt(selectedRow, 0);
-                Borrowing borrowing = borrowingRepo.findBorrowingByTitleAndUser(title, currentUserId);
-                if (borrowing == null || borrowing.getReturnDate() != null) {
-                    throw new IllegalStateException("This book has already been returned.");
-                }
-
-                borrowing.setReturnDate(new Date());
-                borrowingRepo.updateBorrowing(borrowing);
-
-                Copy copy = borrowing.getCopy();
-                copy.setStatus("Available");
-                copyRepo.updateCopy(copy);
-
-                return null;
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    get();
+        int borrowingId = Integer.parseInt((String) borrowingHistoryTable.getValueAt(selectedRow, 0));
+        asyncRepositories.returnAsync(borrowingId)
+                .whenComplete((done, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        JOptionPane.showMessageDialog(UserDashboard.this, "Error returning book: " + error.getMessage());
+                        return;
+                    }
                     JOptionPane.showMessageDialog(UserDashboard.this, "Book returned successfully!");
                     populateAvailableBookTable();
                     populateBorrowingHistoryTable();
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(UserDashboard.this, "Error returning book: " + e.getMessage());
-                }
-            }
-        }.execute();
+                }));
     }
 
     public static void main(String[] args) {
@@ -1,9 +1,9 @@
+import Repositories.PersistenceManager;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Persistence;
 
 public class Main {
     public static void main(String[] args) {
-        EntityManager em = Persistence.createEntityManagerFactory("LMS-PU").createEntityManager();
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
         em.getTransaction().begin();
 
         em.createQuery("DELETE FROM Borrowing").executeUpdate();
@@ -20,5 +20,6 @@ public class Main {
 
         em.getTransaction().commit();
         em.close();
+        PersistenceManager.shutdown();
     }
 }
\ No newline at end of file
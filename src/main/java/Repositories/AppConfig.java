@@ -0,0 +1,92 @@
+package Repositories;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Gives access to the application settings stored in config.properties.
+ * A JVM system property with the same key (e.g. -Ddb.url=...) takes precedence over the file,
+ * so a setting can be changed for one run without editing the file.
+ */
+public final class AppConfig {
+    private static final String CONFIG_FILE = "config.properties";
+    private static final Properties PROPERTIES = load();
+
+    private AppConfig() {
+    }
+
+    /**
+     * Gets a setting as text.
+     *
+     * @param key the name of the setting.
+     * @param defaultValue the value returned when the setting is not defined.
+     * @return the configured value, or the default value if none is set.
+     */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key, PROPERTIES.getProperty(key));
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * Gets a setting as an integer.
+     *
+     * @param key the name of the setting.
+     * @param defaultValue the value returned when the setting is not defined.
+     * @return the configured value, or the default value if none is set.
+     * @throws IllegalStateException if the configured value is not a number.
+     */
+    public static int getInt(String key, int defaultValue) {
+        return (int) getLong(key, defaultValue);
+    }
+
+    /**
+     * Gets a setting as a long.
+     *
+     * @param key the name of the setting.
+     * @param defaultValue the value returned when the setting is not defined.
+     * @return the configured value, or the default value if none is set.
+     * @throws IllegalStateException if the configured value is not a number.
+     */
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Setting " + key + " must be a number but was: " + value, e);
+        }
+    }
+
+    /**
+     * Gets a setting as a boolean.
+     *
+     * @param key the name of the setting.
+     * @param defaultValue the value returned when the setting is not defined.
+     * @return the configured value, or the default value if none is set.
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Loads config.properties from the classpath. A missing file results in an empty configuration.
+     *
+     * @return the loaded properties.
+     */
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream in = AppConfig.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + CONFIG_FILE, e);
+        }
+        return properties;
+    }
+}
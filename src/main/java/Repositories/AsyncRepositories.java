@@ -0,0 +1,251 @@
+package Repositories;
+
+import Entities.Book;
+import Entities.Copy;
+import Entities.User;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs repository calls in the background and returns their results as {@link CompletableFuture}s.
+ * <p>
+ * Every call runs on its own virtual thread, so callers can start several queries at once and combine
+ * the results, for example with {@link CompletableFuture#allOf}. At most {@code db.async.maxConcurrency}
+ * calls (by default the size of the connection pool) talk to the database at the same time; the others
+ * wait for a free slot without holding a connection.
+ * <p>
+ * Cancelling a returned future interrupts its call: a call still waiting for a slot never runs, and a
+ * running call is interrupted. The result of a cancelled call is discarded.
+ * <p>
+ * Futures complete on the virtual thread that ran the call. Swing code must move back to the event
+ * dispatch thread, for example with {@link javax.swing.SwingUtilities#invokeLater}, before touching components.
+ */
+public class AsyncRepositories implements AutoCloseable {
+    private final BookRepo bookRepo = new BookRepo();
+    private final CopyRepo copyRepo = new CopyRepo();
+    private final UserRepo userRepo = new UserRepo();
+    private final BorrowingRepo borrowingRepo = new BorrowingRepo();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+
+    /**
+     * Creates a facade that allows db.async.maxConcurrency concurrent calls,
+     * or as many as the connection pool has connections if that is not set.
+     */
+    public AsyncRepositories() {
+        this(AppConfig.getInt("db.async.maxConcurrency", AppConfig.getInt("db.pool.maxSize", 10)));
+    }
+
+    /**
+     * Creates a facade with a fixed number of concurrent calls.
+     *
+     * @param maxConcurrency the number of calls allowed to use the database at the same time.
+     * @throws IllegalArgumentException if maxConcurrency is not positive.
+     */
+    public AsyncRepositories(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("The maximum concurrency must be positive: " + maxConcurrency);
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    /**
+     * Runs any repository call in the background.
+     *
+     * @param call the call to run.
+     * @param <T> the type of the result.
+     * @return a future completed with the result of the call, or with the exception it threw.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    result.cancel(false);
+                    return;
+                }
+                try {
+                    if (!result.isDone()) {
+                        result.complete(call.get());
+                    }
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IllegalStateException("The async repositories are closed.", e));
+            return result;
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Finds a book by its ID in the background.
+     *
+     * @param id the ID of the book.
+     * @return a future with the book, or null if it doesn't exist.
+     */
+    public CompletableFuture<Book> findBookAsync(Integer id) {
+        return supply(() -> bookRepo.findBookById(id));
+    }
+
+    /**
+     * Finds a user by their ID in the background.
+     *
+     * @param id the ID of the user.
+     * @return a future with the user, or null if they don't exist.
+     */
+    public CompletableFuture<User> findUserAsync(Integer id) {
+        return supply(() -> userRepo.findUserById(id));
+    }
+
+    /**
+     * Finds a copy by its ID in the background.
+     *
+     * @param id the ID of the copy.
+     * @return a future with the copy, or null if it doesn't exist.
+     */
+    public CompletableFuture<Copy> findCopyAsync(Integer id) {
+        return supply(() -> copyRepo.findCopyById(id));
+    }
+
+    /**
+     * Counts the books in the background.
+     *
+     * @return a future with the number of books.
+     */
+    public CompletableFuture<Long> countBooksAsync() {
+        return supply(bookRepo::countBooks);
+    }
+
+    /**
+     * Counts the users in the background.
+     *
+     * @return a future with the number of users.
+     */
+    public CompletableFuture<Long> countUsersAsync() {
+        return supply(userRepo::countUsers);
+    }
+
+    /**
+     * Counts the borrowings in the background.
+     *
+     * @return a future with the number of borrowings.
+     */
+    public CompletableFuture<Long> countBorrowingsAsync() {
+        return supply(borrowingRepo::countBorrowings);
+    }
+
+    /**
+     * Gets one page of book rows in the background.
+     *
+     * @param offset the number of books to skip.
+     * @param limit the maximum number of rows to return.
+     * @return a future with the rows, ordered by ID.
+     */
+    public CompletableFuture<List<BookRow>> getBookRowsPageAsync(int offset, int limit) {
+        return supply(() -> bookRepo.getBookRowsPage(offset, limit));
+    }
+
+    /**
+     * Gets one page of user rows in the background.
+     *
+     * @param offset the number of users to skip.
+     * @param limit the maximum number of rows to return.
+     * @return a future with the rows, ordered by ID.
+     */
+    public CompletableFuture<List<UserRow>> getUserRowsPageAsync(int offset, int limit) {
+        return supply(() -> userRepo.getUserRowsPage(offset, limit));
+    }
+
+    /**
+     * Gets one page of borrowing rows in the background.
+     *
+     * @param offset the number of borrowings to skip.
+     * @param limit the maximum number of rows to return.
+     * @return a future with the rows, ordered by ID.
+     */
+    public CompletableFuture<List<BorrowingRow>> getBorrowingRowsPageAsync(int offset, int limit) {
+        return supply(() -> borrowingRepo.getBorrowingRowsPage(offset, limit));
+    }
+
+    /**
+     * Gets the rows of the books that have copies in the background.
+     *
+     * @return a future with the rows, ordered by ID.
+     */
+    public CompletableFuture<List<BookRow>> getBookRowsWithCopiesAsync() {
+        return supply(bookRepo::getBookRowsWithCopies);
+    }
+
+    /**
+     * Gets the rows of the available copies in the background.
+     *
+     * @return a future with the rows, ordered by copy ID.
+     */
+    public CompletableFuture<List<AvailableCopyRow>> getAvailableCopyRowsAsync() {
+        return supply(copyRepo::getAvailableCopyRows);
+    }
+
+    /**
+     * Gets the borrowing rows of a user in the background.
+     *
+     * @param userId the ID of the user.
+     * @return a future with the rows, ordered by ID.
+     */
+    public CompletableFuture<List<BorrowingRow>> getBorrowingRowsByUserAsync(int userId) {
+        return supply(() -> borrowingRepo.getBorrowingRowsByUser(userId));
+    }
+
+    /**
+     * Lends a copy to a user in the background.
+     *
+     * @param userId the ID of the user borrowing the copy.
+     * @param copyId the ID of the copy.
+     * @return a future completed once the copy is lent. It fails with an IllegalStateException if the copy is not available.
+     */
+    public CompletableFuture<Void> borrowAsync(int userId, int copyId) {
+        return supply(() -> {
+            if (!borrowingRepo.borrowCopy(userId, copyId)) {
+                throw new IllegalStateException("The book is not available.");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns the copy of a borrowing in the background.
+     *
+     * @param borrowingId the ID of the borrowing to close.
+     * @return a future completed once the copy is returned. It fails with an IllegalStateException if it was already returned.
+     */
+    public CompletableFuture<Void> returnAsync(int borrowingId) {
+        return supply(() -> {
+            if (!borrowingRepo.returnBorrowing(borrowingId)) {
+                throw new IllegalStateException("This book has already been returned.");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Stops accepting calls and interrupts the calls still running or waiting.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,15 @@
+package Repositories;
+
+/**
+ * A read-only row of the available copies listing, read straight from the database without loading
+ * the Copy and Book entities.
+ *
+ * @param copyId the ID of the copy.
+ * @param bookId the ID of the book the copy belongs to.
+ * @param title the title of the book.
+ * @param author the author of the book.
+ * @param isbn the ISBN of the book.
+ * @param copyNumber the number of the copy.
+ */
+public record AvailableCopyRow(Integer copyId, Integer bookId, String title, String author, String isbn, Integer copyNumber) {
+}
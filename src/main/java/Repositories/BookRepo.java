@@ -2,15 +2,17 @@ package Repositories;
 
 import Entities.Book;
 import jakarta.persistence.*;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * This class is used to handle all database actions for books.
  * It lets you add, update, find, or delete books in the system.
  */
 public class BookRepo {
-    private EntityManagerFactory emf = Persistence.createEntityManagerFactory("LMS-PU");
+    private final RepositoryMetrics metrics = RepositoryMetrics.forRepository(BookRepo.class);
 
     /**
      * Adds a new book to the database.
@@ -18,11 +20,45 @@ public class BookRepo {
      * @param book the book to be added.
      */
     public void createBook(Book book) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        em.persist(book); // Save the book in the database
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("createBook", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                em.persist(book); // Save the book in the database
+                em.flush(); // Insert now so constraint violations surface here, not wrapped by commit
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Adds a large number of new books to the database in batches.
+     * Copies added to a book's copies list are saved together with it.
+     * The books are committed in chunks of db.import.chunkSize, so a failure only rolls back the current chunk.
+     *
+     * @param books the books to add, read one at a time.
+     * @return how many books were added and how long it took.
+     */
+    public ImportReport importBooks(Stream<Book> books) {
+        return metrics.call("importBooks", () -> new BulkWriter(emf()).persistAll(books));
+    }
+
+    /**
+     * Adds a large number of new books to the database in batches, committing them in chunks of the given size.
+     * A caller that records its progress after each call can pass the number of books it hands over,
+     * so that everything it hands over is committed or rolled back as a whole.
+     *
+     * @param books the books to add, read one at a time.
+     * @param chunkSize the number of books committed in one transaction.
+     * @return how many books were added and how long it took.
+     */
+    public ImportReport importBooks(Stream<Book> books, int chunkSize) {
+        return metrics.call("importBooks", () -> new BulkWriter(emf(), chunkSize).persistAll(books));
     }
 
     /**
@@ -32,22 +68,123 @@ public class BookRepo {
      * @return the book if it exists, or null if it doesn't.
      */
     public Book findBookById(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        Book book = em.find(Book.class, id); // Look for the book by its ID
-        em.close();
-        return book;
+        return metrics.call("findBookById", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.find(Book.class, id); // Look for the book by its ID
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
      * Gets a list of all the books in the database.
+     * The result is kept in the query cache until the Books table changes.
+     * Loads the whole table; on large tables read it in slices with {@link #getBooksAfter} instead.
      *
      * @return a list of all books.
      */
     public List<Book> getAllBooks() {
-        EntityManager em = emf.createEntityManager();
-        List<Book> books = em.createQuery("SELECT b FROM Book b", Book.class).getResultList(); // Fetch all books
-        em.close();
-        return books;
+        return metrics.call("getAllBooks", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery("SELECT b FROM Book b", Book.class) // Fetch all books
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .setHint(HibernateHints.HINT_CACHEABLE, true)
+                        .setHint(HibernateHints.HINT_CACHE_REGION, CatalogCache.QUERY_REGION)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Gets a row for every book that has at least one copy, each book once, with the name of its publisher.
+     * Neither the books nor their copies are loaded as entities. The result is kept in the query cache
+     * until the Books, Copies or Publishers table changes.
+     *
+     * @return the rows of the books with copies, ordered by ID.
+     */
+    public List<BookRow> getBookRowsWithCopies() {
+        return metrics.call("getBookRowsWithCopies", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery(
+                                "SELECT new Repositories.BookRow(b.id, b.title, b.author, p.name, b.publicationYear, b.isbn) "
+                                        + "FROM Book b JOIN b.publisherEntity p "
+                                        + "WHERE EXISTS (SELECT c.id FROM Copy c WHERE c.book = b) ORDER BY b.id", BookRow.class)
+                        .setHint(HibernateHints.HINT_CACHEABLE, true)
+                        .setHint(HibernateHints.HINT_CACHE_REGION, CatalogCache.QUERY_REGION)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Gets one page of book rows with the name of each book's publisher, ordered by ID.
+     * The books are not loaded as entities.
+     *
+     * @param offset the number of books to skip.
+     * @param limit the maximum number of rows to return.
+     * @return up to limit book rows starting at the given position.
+     */
+    public List<BookRow> getBookRowsPage(int offset, int limit) {
+        return metrics.call("getBookRowsPage", () -> Paging.page(emf(),
+                "SELECT new Repositories.BookRow(b.id, b.title, b.author, p.name, b.publicationYear, b.isbn) "
+                        + "FROM Book b JOIN b.publisherEntity p ORDER BY b.id",
+                BookRow.class, offset, limit));
+    }
+
+    /**
+     * Gets the next slice of books after the given one, ordered by ID.
+     * Pass the ID of the last book of a slice to get the following one.
+     *
+     * @param afterId the ID of the last book already read, or null to start from the first one.
+     * @param limit the maximum number of books to return.
+     * @return up to limit books with a greater ID, ordered by ID.
+     */
+    public List<Book> getBooksAfter(Integer afterId, int limit) {
+        return metrics.call("getBooksAfter", () -> Paging.after(emf(), Book.class, afterId, limit));
+    }
+
+    /**
+     * Gets one page of books, ordered by ID.
+     *
+     * @param offset the number of books to skip.
+     * @param limit the maximum number of books to return.
+     * @return up to limit books starting at the given position.
+     */
+    public List<Book> getBooksPage(int offset, int limit) {
+        return metrics.call("getBooksPage", () -> Paging.page(emf(), Book.class, offset, limit));
+    }
+
+    /**
+     * Counts all books in the database.
+     *
+     * @return the number of books.
+     */
+    public long countBooks() {
+        return metrics.call("countBooks", () -> Paging.count(emf(), Book.class));
+    }
+
+    /**
+     * Gets the ISBNs of all books in the database, without loading the books themselves.
+     *
+     * @return the ISBN of every book.
+     */
+    public List<String> findAllIsbns() {
+        return metrics.call("findAllIsbns", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery("SELECT b.isbn FROM Book b", String.class).getResultList();
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -56,11 +193,19 @@ public class BookRepo {
      * @param book the book with updated details.
      */
     public void updateBook(Book book) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        em.merge(book); // Update the book details
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("updateBook", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                em.merge(book); // Update the book details
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -70,17 +215,28 @@ public class BookRepo {
      * @throws PersistenceException if the book has copies and cannot be deleted.
      */
     public void deleteBook(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        Book book = em.find(Book.class, id); // Find the book
-        if (book != null && !book.getCopies().isEmpty()) { // Check if it has copies
-            em.close();
-            throw new PersistenceException("Cannot delete book with associated copies.");
-        }
-        if (book != null) {
-            em.remove(book); // Remove the book if it exists and has no copies
-        }
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("deleteBook", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                Book book = em.find(Book.class, id); // Find the book
+                if (book != null && !book.getCopies().isEmpty()) { // Check if it has copies
+                    throw new PersistenceException("Cannot delete book with associated copies.");
+                }
+                if (book != null) {
+                    em.remove(book); // Remove the book if it exists and has no copies
+                }
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    private EntityManagerFactory emf() {
+        return PersistenceManager.getEntityManagerFactory();
     }
-}
\ No newline at end of file
+}
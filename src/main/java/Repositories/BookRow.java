@@ -0,0 +1,14 @@
+package Repositories;
+
+/**
+ * A read-only row of a book listing, read straight from the database without loading the Book entity.
+ *
+ * @param id the ID of the book.
+ * @param title the title of the book.
+ * @param author the author of the book.
+ * @param publisherName the name of the book's publisher.
+ * @param publicationYear the publication year of the book.
+ * @param isbn the ISBN of the book.
+ */
+public record BookRow(Integer id, String title, String author, String publisherName, Integer publicationYear, String isbn) {
+}
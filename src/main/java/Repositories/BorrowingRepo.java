@@ -2,48 +2,88 @@ package Repositories;
 
 import Entities.Borrowing;
 import Entities.Copy;
+import Entities.CopyStatus;
 import Entities.User;
 import jakarta.persistence.*;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
 
+import java.util.Date;
 import java.util.List;
 
 /**
  * This class handles database operations related to borrowings.
- * It includes methods to create, update, find, and delete borrowings.
+ * It includes methods to create, update, find, and delete borrowings,
+ * and fast borrow and return operations that change copies without loading them.
  */
 public class BorrowingRepo {
-    private EntityManagerFactory emf = Persistence.createEntityManagerFactory("LMS-PU");
+    private final RepositoryMetrics metrics = RepositoryMetrics.forRepository(BorrowingRepo.class);
+
+    /**
+     * How often a borrowing is attempted before a conflicting concurrent change is reported.
+     */
+    private static final int MAX_BORROW_ATTEMPTS = 3;
 
     /**
      * Creates a new borrowing record in the database.
      * Also updates the copy status to "Borrowed".
+     * <p>
+     * No lock is taken: if another borrowing of the same copy is saved at the same time, the version
+     * check on the copy fails and the borrowing is attempted again with the current state of the copy,
+     * up to {@value #MAX_BORROW_ATTEMPTS} times.
      *
      * @param borrowing the borrowing to be created.
      * @throws IllegalStateException if the user or copy is not valid or already borrowed.
+     * @throws ConflictException if the copy kept being changed concurrently in every attempt.
      */
     public void createBorrowing(Borrowing borrowing) {
-        if (borrowing.getBorrowDate() == null) {
-            throw new IllegalArgumentException("Borrow date cannot be null.");
-        }
+        metrics.run("createBorrowing", () -> {
+            if (borrowing.getBorrowDate() == null) {
+                throw new IllegalArgumentException("Borrow date cannot be null.");
+            }
 
-        EntityManager em = emf.createEntityManager();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    tryCreateBorrowing(borrowing);
+                    return;
+                } catch (RuntimeException e) {
+                    if (!ConflictException.isConflict(e)) {
+                        throw e;
+                    }
+                    borrowing.setId(null); // the id was assigned by the rolled back attempt
+                    if (attempt == MAX_BORROW_ATTEMPTS) {
+                        throw new ConflictException("The book copy was changed by another borrowing " + attempt + " times in a row.", e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Makes one attempt at creating a borrowing record in its own transaction.
+     *
+     * @param borrowing the borrowing to be created.
+     * @throws IllegalStateException if the user or copy is not valid or already borrowed.
+     */
+    private void tryCreateBorrowing(Borrowing borrowing) {
+        EntityManager em = emf().createEntityManager();
+        // Hibernate 6.2 leaves the forced version increment in an unexecuted JDBC batch at commit
+        em.unwrap(Session.class).setJdbcBatchSize(1);
         em.getTransaction().begin();
         try {
-            System.out.println("Inside createBorrowing:");
-            System.out.println("User ID: " + borrowing.getUser().getId());
-            System.out.println("Copy ID: " + borrowing.getCopy().getId());
-
             User managedUser = em.find(User.class, borrowing.getUser().getId());
             Copy managedCopy = em.createQuery(
                             "SELECT c FROM Copy c WHERE c.id = :id", Copy.class)
                     .setParameter("id", borrowing.getCopy().getId())
-                    .getSingleResult();
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
 
             if (managedUser == null || managedCopy == null) {
                 throw new IllegalStateException("User or Copy is not managed by the EntityManager.");
             }
 
-            if ("Borrowed".equals(managedCopy.getStatus())) {
+            if (managedCopy.getStatus() == CopyStatus.BORROWED) {
                 Long activeBorrowingCount = em.createQuery(
                                 "SELECT COUNT(b) FROM Borrowing b WHERE b.copy.id = :copyId AND b.returnDate IS NULL", Long.class)
                         .setParameter("copyId", managedCopy.getId())
@@ -54,15 +94,16 @@ public class BorrowingRepo {
                 }
             }
 
-            managedCopy.setStatus("Borrowed");
+            // The copy's version is checked and increased on commit even when its status doesn't change,
+            // so a concurrent borrowing of the same copy always fails here
+            em.lock(managedCopy, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+            managedCopy.setStatus(CopyStatus.BORROWED);
             borrowing.setUser(managedUser);
             borrowing.setCopy(managedCopy);
 
             em.persist(borrowing);
-            em.merge(managedCopy);
             em.flush();
             em.getTransaction().commit();
-            System.out.println("Borrowing created successfully!");
         } catch (Exception e) {
             em.getTransaction().rollback();
             throw e;
@@ -71,6 +112,141 @@ public class BorrowingRepo {
         }
     }
 
+    /**
+     * Lends a copy to a user without loading either of them.
+     * The copy is marked as borrowed with a single conditional update that only succeeds while the copy is
+     * available, and the borrowing is inserted in the same transaction. Of several concurrent calls for the
+     * same copy exactly one succeeds.
+     * <p>
+     * The price of not loading the copy is the second-level cache: Hibernate cannot tell which rows a bulk
+     * update changed, so after it commits every cached copy and every cached copies collection of a book are
+     * dropped, not only the lent copy. A native update synchronized on Copy is treated the same way. The next
+     * reads of other copies go to the database once and are cached again; book and publisher entries stay.
+     *
+     * @param userId the ID of the user borrowing the copy.
+     * @param copyId the ID of the copy.
+     * @return true if the copy was lent, false if it is not available or doesn't exist.
+     */
+    public boolean borrowCopy(int userId, int copyId) {
+        return metrics.call("borrowCopy", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                int updated = em.createQuery(
+                                "UPDATE Copy c SET c.status = :borrowed, c.version = c.version + 1 "
+                                        + "WHERE c.id = :copyId AND c.status = :available")
+                        .setParameter("borrowed", CopyStatus.BORROWED)
+                        .setParameter("available", CopyStatus.AVAILABLE)
+                        .setParameter("copyId", copyId)
+                        .executeUpdate();
+                if (updated == 0) {
+                    em.getTransaction().rollback();
+                    return false;
+                }
+
+                Borrowing borrowing = new Borrowing();
+                borrowing.setUser(em.getReference(User.class, userId));
+                borrowing.setCopy(em.getReference(Copy.class, copyId));
+                borrowing.setBorrowDate(new Date());
+                em.persist(borrowing);
+                em.flush();
+                em.getTransaction().commit();
+                return true;
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Closes a borrowing and makes its copy available again, without loading either.
+     * Both changes are conditional updates in one transaction; the return only succeeds while the borrowing is
+     * still open, so a borrowing returned twice at the same time only makes its copy available once.
+     * Like {@link #borrowCopy(int, int)} it drops all cached copies.
+     *
+     * @param borrowingId the ID of the borrowing to close.
+     * @return true if the copy was returned, false if the borrowing doesn't exist or was already returned.
+     */
+    public boolean returnBorrowing(int borrowingId) {
+        return metrics.call("returnBorrowing", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                // The copy goes first, while the borrowing that points to it is still open
+                em.createQuery(
+                                "UPDATE Copy c SET c.status = :available, c.version = c.version + 1 "
+                                        + "WHERE c.status = :borrowed AND c.id IN (SELECT b.copy.id FROM Borrowing b "
+                                        + "WHERE b.id = :borrowingId AND b.returnDate IS NULL)")
+                        .setParameter("available", CopyStatus.AVAILABLE)
+                        .setParameter("borrowed", CopyStatus.BORROWED)
+                        .setParameter("borrowingId", borrowingId)
+                        .executeUpdate();
+                int closed = em.createQuery(
+                                "UPDATE Borrowing b SET b.returnDate = :today, b.version = b.version + 1 "
+                                        + "WHERE b.id = :borrowingId AND b.returnDate IS NULL")
+                        .setParameter("today", new Date(), TemporalType.DATE)
+                        .setParameter("borrowingId", borrowingId)
+                        .executeUpdate();
+                if (closed == 0) {
+                    em.getTransaction().rollback();
+                    return false;
+                }
+                em.getTransaction().commit();
+                return true;
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Closes the active borrowing of a copy, whoever borrowed it, and makes the copy available again,
+     * without loading either. Used where the copy is known but the borrowing is not.
+     * Like {@link #borrowCopy(int, int)} it drops all cached copies.
+     *
+     * @param copyId the ID of the copy being returned.
+     * @return true if the copy was returned, false if it has no active borrowing.
+     */
+    public boolean returnCopyById(int copyId) {
+        return metrics.call("returnCopyById", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                // The copy goes first, in the same order as borrowCopy, so the two can't deadlock
+                em.createQuery(
+                                "UPDATE Copy c SET c.status = :available, c.version = c.version + 1 "
+                                        + "WHERE c.id = :copyId AND c.status = :borrowed")
+                        .setParameter("available", CopyStatus.AVAILABLE)
+                        .setParameter("borrowed", CopyStatus.BORROWED)
+                        .setParameter("copyId", copyId)
+                        .executeUpdate();
+                int closed = em.createQuery(
+                                "UPDATE Borrowing b SET b.returnDate = :today, b.version = b.version + 1 "
+                                        + "WHERE b.copy.id = :copyId AND b.returnDate IS NULL")
+                        .setParameter("today", new Date(), TemporalType.DATE)
+                        .setParameter("copyId", copyId)
+                        .executeUpdate();
+                if (closed == 0) {
+                    em.getTransaction().rollback();
+                    return false;
+                }
+                em.getTransaction().commit();
+                return true;
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
+    }
+
     /**
      * Finds a borrowing by its ID.
      *
@@ -78,22 +254,80 @@ public class BorrowingRepo {
      * @return the borrowing if found, or null otherwise.
      */
     public Borrowing findBorrowingById(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        Borrowing borrowing = em.find(Borrowing.class, id);
-        em.close();
-        return borrowing;
+        return metrics.call("findBorrowingById", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.find(Borrowing.class, id);
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
      * Retrieves all borrowings from the database.
+     * Loads the whole table; on large tables read it in slices with {@link #getBorrowingsAfter} instead.
      *
      * @return a list of all borrowings.
      */
     public List<Borrowing> getAllBorrowings() {
-        EntityManager em = emf.createEntityManager();
-        List<Borrowing> borrowings = em.createQuery("SELECT b FROM Borrowing b", Borrowing.class).getResultList();
-        em.close();
-        return borrowings;
+        return metrics.call("getAllBorrowings", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery("SELECT b FROM Borrowing b", Borrowing.class)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Gets the next slice of borrowings after the given one, ordered by ID.
+     * Pass the ID of the last borrowing of a slice to get the following one.
+     *
+     * @param afterId the ID of the last borrowing already read, or null to start from the first one.
+     * @param limit the maximum number of borrowings to return.
+     * @return up to limit borrowings with a greater ID, ordered by ID.
+     */
+    public List<Borrowing> getBorrowingsAfter(Integer afterId, int limit) {
+        return metrics.call("getBorrowingsAfter", () -> Paging.after(emf(), Borrowing.class, afterId, limit));
+    }
+
+    /**
+     * Gets one page of borrowings, ordered by ID.
+     *
+     * @param offset the number of borrowings to skip.
+     * @param limit the maximum number of borrowings to return.
+     * @return up to limit borrowings starting at the given position.
+     */
+    public List<Borrowing> getBorrowingsPage(int offset, int limit) {
+        return metrics.call("getBorrowingsPage", () -> Paging.page(emf(), Borrowing.class, offset, limit));
+    }
+
+    /**
+     * Gets one page of borrowing rows with the user's name and the book's title, ordered by ID.
+     * The borrowings, users, copies and books are not loaded as entities.
+     *
+     * @param offset the number of borrowings to skip.
+     * @param limit the maximum number of rows to return.
+     * @return up to limit borrowing rows starting at the given position.
+     */
+    public List<BorrowingRow> getBorrowingRowsPage(int offset, int limit) {
+        return metrics.call("getBorrowingRowsPage", () -> Paging.page(emf(),
+                "SELECT new Repositories.BorrowingRow(b.id, u.name, bk.title, b.borrowDate, b.returnDate) "
+                        + "FROM Borrowing b JOIN b.user u JOIN b.copy c JOIN c.book bk ORDER BY b.id",
+                BorrowingRow.class, offset, limit));
+    }
+
+    /**
+     * Counts all borrowings in the database.
+     *
+     * @return the number of borrowings.
+     */
+    public long countBorrowings() {
+        return metrics.call("countBorrowings", () -> Paging.count(emf(), Borrowing.class));
     }
 
     /**
@@ -102,30 +336,40 @@ public class BorrowingRepo {
      * @param borrowing the borrowing to update.
      * @throws IllegalArgumentException if the borrowing is not found.
      * @throws IllegalStateException if the return date is before the borrow date.
+     * @throws ConflictException if the borrowing was changed since it was read.
      */
     public void updateBorrowing(Borrowing borrowing) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        try {
-            Borrowing managedBorrowing = em.find(Borrowing.class, borrowing.getId());
-            if (managedBorrowing == null) {
-                throw new IllegalArgumentException("Borrowing record not found.");
-            }
+        metrics.run("updateBorrowing", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                Borrowing managedBorrowing = em.find(Borrowing.class, borrowing.getId());
+                if (managedBorrowing == null) {
+                    throw new IllegalArgumentException("Borrowing record not found.");
+                }
+                if (borrowing.getVersion() != null && !borrowing.getVersion().equals(managedBorrowing.getVersion())) {
+                    throw new ConflictException("The borrowing record was changed since it was read.", null);
+                }
 
-            if (borrowing.getReturnDate() != null &&
-                    borrowing.getReturnDate().before(borrowing.getBorrowDate())) {
-                throw new IllegalStateException("Return date cannot be earlier than borrow date.");
-            }
+                if (borrowing.getReturnDate() != null &&
+                        borrowing.getReturnDate().before(borrowing.getBorrowDate())) {
+                    throw new IllegalStateException("Return date cannot be earlier than borrow date.");
+                }
 
-            managedBorrowing.setReturnDate(borrowing.getReturnDate());
-            em.merge(managedBorrowing);
-            em.getTransaction().commit();
-        } catch (Exception e) {
-            em.getTransaction().rollback();
-            throw e;
-        } finally {
-            em.close();
-        }
+                managedBorrowing.setReturnDate(borrowing.getReturnDate());
+                em.merge(managedBorrowing);
+                em.flush();
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                if (ConflictException.isConflict(e) && !(e instanceof ConflictException)) {
+                    throw new ConflictException("The borrowing record was changed since it was read.", e);
+                }
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -134,14 +378,22 @@ public class BorrowingRepo {
      * @param id the ID of the borrowing to delete.
      */
     public void deleteBorrowing(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        Borrowing borrowing = em.find(Borrowing.class, id);
-        if (borrowing != null) {
-            em.remove(borrowing);
-        }
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("deleteBorrowing", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                Borrowing borrowing = em.find(Borrowing.class, id);
+                if (borrowing != null) {
+                    em.remove(borrowing);
+                }
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -151,17 +403,44 @@ public class BorrowingRepo {
      * @return a list of borrowings for the user.
      */
     public List<Borrowing> getBorrowingsByUser(int userId) {
-        EntityManager em = emf.createEntityManager();
-        try {
-            return em.createQuery(
-                            "SELECT b FROM Borrowing b WHERE b.user.id = :userId",
-                            Borrowing.class
-                    )
-                    .setParameter("userId", userId)
-                    .getResultList();
-        } finally {
-            em.close();
-        }
+        return metrics.call("getBorrowingsByUser", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery(
+                                "SELECT b FROM Borrowing b WHERE b.user.id = :userId",
+                                Borrowing.class
+                        )
+                        .setParameter("userId", userId)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Gets the borrowing rows of a specific user, ordered by ID.
+     * The borrowings are not loaded as entities.
+     *
+     * @param userId the ID of the user.
+     * @return the borrowing rows of the user.
+     */
+    public List<BorrowingRow> getBorrowingRowsByUser(int userId) {
+        return metrics.call("getBorrowingRowsByUser", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery(
+                                "SELECT new Repositories.BorrowingRow(b.id, u.name, bk.title, b.borrowDate, b.returnDate) "
+                                        + "FROM Borrowing b JOIN b.user u JOIN b.copy c JOIN c.book bk "
+                                        + "WHERE u.id = :userId ORDER BY b.id",
+                                BorrowingRow.class)
+                        .setParameter("userId", userId)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -172,16 +451,22 @@ public class BorrowingRepo {
      * @return the active borrowing record.
      */
     public Borrowing findBorrowingByTitleAndUser(String title, int userId) {
-        EntityManager em = emf.createEntityManager();
-        try {
-            return em.createQuery(
-                            "SELECT b FROM Borrowing b WHERE b.copy.book.title = :title AND b.user.id = :userId AND b.returnDate IS NULL",
-                            Borrowing.class)
-                    .setParameter("title", title)
-                    .setParameter("userId", userId)
-                    .getSingleResult();
-        } finally {
-            em.close();
-        }
+        return metrics.call("findBorrowingByTitleAndUser", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery(
+                                "SELECT b FROM Borrowing b WHERE b.copy.book.title = :title AND b.user.id = :userId AND b.returnDate IS NULL",
+                                Borrowing.class)
+                        .setParameter("title", title)
+                        .setParameter("userId", userId)
+                        .getSingleResult();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    private EntityManagerFactory emf() {
+        return PersistenceManager.getEntityManagerFactory();
     }
-}
\ No newline at end of file
+}
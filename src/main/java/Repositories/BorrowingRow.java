@@ -0,0 +1,16 @@
+package Repositories;
+
+import java.util.Date;
+
+/**
+ * A read-only row of a borrowing listing, read straight from the database without loading
+ * the Borrowing entity and its user, copy and book.
+ *
+ * @param id the ID of the borrowing.
+ * @param userName the name of the user who borrowed the copy.
+ * @param bookTitle the title of the borrowed book.
+ * @param borrowDate the date the copy was borrowed.
+ * @param returnDate the date the copy was returned, or null if it is still borrowed.
+ */
+public record BorrowingRow(Integer id, String userName, String bookTitle, Date borrowDate, Date returnDate) {
+}
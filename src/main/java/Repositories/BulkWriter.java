@@ -0,0 +1,95 @@
+package Repositories;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Persists a large number of new entities with a flat memory footprint.
+ * Entities are written in chunks, each in its own transaction. Inside a chunk the persistence context
+ * is flushed and cleared every db.batchSize entities, so the inserts go out as full JDBC batches
+ * and the EntityManager never holds more than one batch of entities.
+ */
+final class BulkWriter {
+    private final EntityManagerFactory emf;
+    private final int flushSize;
+    private final int chunkSize;
+
+    /**
+     * Creates a writer using the batch and chunk sizes from config.properties.
+     *
+     * @param emf the factory to open EntityManagers from.
+     */
+    BulkWriter(EntityManagerFactory emf) {
+        this(emf, Math.max(AppConfig.getInt("db.batchSize", 50), AppConfig.getInt("db.import.chunkSize", 5000)));
+    }
+
+    /**
+     * Creates a writer with its own chunk size, for callers that track their own progress per chunk.
+     *
+     * @param emf the factory to open EntityManagers from.
+     * @param chunkSize the number of entities committed in one transaction.
+     */
+    BulkWriter(EntityManagerFactory emf, int chunkSize) {
+        this.emf = emf;
+        this.flushSize = Math.max(1, AppConfig.getInt("db.batchSize", 50));
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Persists every entity of the stream. Entities whose cascades persist further rows
+     * (a book with its copies) count as one entity.
+     * If a chunk fails, its transaction is rolled back and the exception is rethrown;
+     * chunks committed before it stay in the database.
+     *
+     * @param entities the new entities to persist, consumed lazily.
+     * @return the number of entities written, the number of chunks and the elapsed time.
+     */
+    ImportReport persistAll(Stream<?> entities) {
+        long start = System.nanoTime();
+        long imported = 0;
+        int chunks = 0;
+
+        Iterator<?> iterator = entities.iterator();
+        while (iterator.hasNext()) {
+            imported += persistChunk(iterator);
+            chunks++;
+        }
+        return new ImportReport(imported, chunks, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Persists up to one chunk of entities from the iterator in a single transaction.
+     *
+     * @param iterator the source of entities, positioned at the start of the chunk.
+     * @return the number of entities persisted.
+     */
+    private int persistChunk(Iterator<?> iterator) {
+        EntityManager em = emf.createEntityManager();
+        // Imported rows are not read back right away, so keep them out of the second-level cache
+        em.setProperty("jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+        em.getTransaction().begin();
+        try {
+            int count = 0;
+            while (count < chunkSize && iterator.hasNext()) {
+                em.persist(iterator.next());
+                count++;
+                if (count % flushSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.getTransaction().commit();
+            return count;
+        } catch (Exception e) {
+            em.getTransaction().rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+}
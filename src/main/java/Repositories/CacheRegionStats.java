@@ -0,0 +1,22 @@
+package Repositories;
+
+/**
+ * A point-in-time snapshot of the counters of one second-level cache region.
+ *
+ * @param region the name of the cache region.
+ * @param hits the number of lookups served from the cache.
+ * @param misses the number of lookups that had to go to the database.
+ * @param puts the number of entries written into the cache.
+ */
+public record CacheRegionStats(String region, long hits, long misses, long puts) {
+
+    /**
+     * Gets the share of lookups that were served from the cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if the region has not been used yet.
+     */
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,104 @@
+package Repositories;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gives access to the second-level cache that holds the catalog entities (books, copies and publishers)
+ * and the results of the catalog listing queries.
+ * Entries are kept up to date by Hibernate when the repositories write through an EntityManager:
+ * entity entries are updated in place and a cached query result is discarded as soon as one of
+ * the tables it reads from changes. This class exposes the region counters and lets callers drop
+ * the cached data when the database was changed behind the application's back.
+ */
+public final class CatalogCache {
+    /**
+     * The cache region holding Book entities.
+     */
+    public static final String BOOK_REGION = "Entities.Book";
+
+    /**
+     * The cache region holding the copies collection of each book.
+     */
+    public static final String BOOK_COPIES_REGION = "Entities.Book.copies";
+
+    /**
+     * The cache region holding Copy entities.
+     */
+    public static final String COPY_REGION = "Entities.Copy";
+
+    /**
+     * The cache region holding Publisher entities.
+     */
+    public static final String PUBLISHER_REGION = "Entities.Publisher";
+
+    /**
+     * The cache region holding the results of the catalog listing queries.
+     */
+    public static final String QUERY_REGION = "catalog-queries";
+
+    private static final List<String> REGIONS = List.of(BOOK_REGION, BOOK_COPIES_REGION, COPY_REGION, PUBLISHER_REGION);
+
+    private CatalogCache() {
+    }
+
+    /**
+     * Gets the hit, miss and put counters of one cache region.
+     *
+     * @param region the name of the region.
+     * @return the counters of the region, all zero if statistics are disabled or the region was never used.
+     */
+    public static CacheRegionStats getRegionStats(String region) {
+        Statistics statistics = sessionFactory().getStatistics();
+        return toStats(region, statistics.isStatisticsEnabled() ? statistics.getDomainDataRegionStatistics(region) : null);
+    }
+
+    /**
+     * Gets the counters of every catalog cache region.
+     *
+     * @return the counters of all catalog regions.
+     */
+    public static List<CacheRegionStats> getAllRegionStats() {
+        List<CacheRegionStats> stats = new ArrayList<>();
+        for (String region : REGIONS) {
+            stats.add(getRegionStats(region));
+        }
+        return stats;
+    }
+
+    /**
+     * Gets the hit, miss and put counters of the catalog query result cache.
+     *
+     * @return the counters of the query region, all zero if statistics are disabled or no query was cached yet.
+     */
+    public static CacheRegionStats getQueryStats() {
+        Statistics statistics = sessionFactory().getStatistics();
+        return toStats(QUERY_REGION, statistics.isStatisticsEnabled() ? statistics.getQueryRegionStatistics(QUERY_REGION) : null);
+    }
+
+    /**
+     * Removes every cached catalog entry and query result, so the next reads go to the database.
+     */
+    public static void evictAll() {
+        sessionFactory().getCache().evictAllRegions();
+        sessionFactory().getCache().evictQueryRegions();
+    }
+
+    private static CacheRegionStats toStats(String region, CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) {
+            return new CacheRegionStats(region, 0, 0, 0);
+        }
+        return new CacheRegionStats(region,
+                regionStatistics.getHitCount(),
+                regionStatistics.getMissCount(),
+                regionStatistics.getPutCount());
+    }
+
+    private static SessionFactory sessionFactory() {
+        return PersistenceManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,42 @@
+package Repositories;
+
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import org.hibernate.StaleStateException;
+
+/**
+ * Thrown when a change is rejected because another change to the same record was saved first.
+ * The record should be read again before the change is retried.
+ */
+public class ConflictException extends RuntimeException {
+
+    /**
+     * Creates a conflict exception.
+     *
+     * @param message the description of the conflict.
+     * @param cause the exception that revealed the conflict, or null.
+     */
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Checks whether an exception was caused by a concurrent change to the same record, that is whether
+     * somewhere in its chain of causes a version check failed, the row was locked by another transaction
+     * for too long, or a conflict was already reported.
+     *
+     * @param e the exception to check.
+     * @return true if the exception reports a conflict with another change.
+     */
+    public static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConflictException || cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException || cause instanceof PessimisticLockException
+                    || cause instanceof LockTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
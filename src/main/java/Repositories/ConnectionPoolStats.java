@@ -0,0 +1,12 @@
+package Repositories;
+
+/**
+ * A point-in-time snapshot of the JDBC connection pool counters.
+ *
+ * @param active the number of connections currently handed out to callers.
+ * @param idle the number of open connections waiting in the pool.
+ * @param total the total number of open connections (active plus idle).
+ * @param waiting the number of threads blocked waiting for a connection.
+ */
+public record ConnectionPoolStats(int active, int idle, int total, int waiting) {
+}
@@ -2,15 +2,18 @@ package Repositories;
 
 import Entities.Book;
 import Entities.Copy;
+import Entities.CopyStatus;
 import jakarta.persistence.*;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * This class handles database operations for managing copies of books.
  */
 public class CopyRepo {
-    private EntityManagerFactory emf = Persistence.createEntityManagerFactory("LMS-PU");
+    private final RepositoryMetrics metrics = RepositoryMetrics.forRepository(CopyRepo.class);
 
     /**
      * Creates a new copy of a book in the database.
@@ -18,11 +21,31 @@ public class CopyRepo {
      * @param copy the copy to be created.
      */
     public void createCopy(Copy copy) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        em.persist(copy);
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("createCopy", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                em.persist(copy);
+                em.flush();
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Creates a large number of new copies in the database in batches.
+     * The copies are committed in chunks of db.import.chunkSize, so a failure only rolls back the current chunk.
+     *
+     * @param copies the copies to create, read one at a time.
+     * @return how many copies were created and how long it took.
+     */
+    public ImportReport createCopies(Stream<Copy> copies) {
+        return metrics.call("createCopies", () -> new BulkWriter(emf()).persistAll(copies));
     }
 
     /**
@@ -32,22 +55,68 @@ public class CopyRepo {
      * @return the found copy or null if not found.
      */
     public Copy findCopyById(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        Copy copy = em.find(Copy.class, id);
-        em.close();
-        return copy;
+        return metrics.call("findCopyById", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.find(Copy.class, id);
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
      * Retrieves all copies from the database.
+     * The result is kept in the query cache until the Copies table changes.
+     * Loads the whole table; on large tables read it in slices with {@link #getCopiesAfter} instead.
      *
      * @return a list of all copies.
      */
     public List<Copy> getAllCopies() {
-        EntityManager em = emf.createEntityManager();
-        List<Copy> copies = em.createQuery("SELECT c FROM Copy c", Copy.class).getResultList();
-        em.close();
-        return copies;
+        return metrics.call("getAllCopies", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery("SELECT c FROM Copy c", Copy.class)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .setHint(HibernateHints.HINT_CACHEABLE, true)
+                        .setHint(HibernateHints.HINT_CACHE_REGION, CatalogCache.QUERY_REGION)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Gets the next slice of copies after the given one, ordered by ID.
+     * Pass the ID of the last copy of a slice to get the following one.
+     *
+     * @param afterId the ID of the last copy already read, or null to start from the first one.
+     * @param limit the maximum number of copies to return.
+     * @return up to limit copies with a greater ID, ordered by ID.
+     */
+    public List<Copy> getCopiesAfter(Integer afterId, int limit) {
+        return metrics.call("getCopiesAfter", () -> Paging.after(emf(), Copy.class, afterId, limit));
+    }
+
+    /**
+     * Gets one page of copies, ordered by ID.
+     *
+     * @param offset the number of copies to skip.
+     * @param limit the maximum number of copies to return.
+     * @return up to limit copies starting at the given position.
+     */
+    public List<Copy> getCopiesPage(int offset, int limit) {
+        return metrics.call("getCopiesPage", () -> Paging.page(emf(), Copy.class, offset, limit));
+    }
+
+    /**
+     * Counts all copies in the database.
+     *
+     * @return the number of copies.
+     */
+    public long countCopies() {
+        return metrics.call("countCopies", () -> Paging.count(emf(), Copy.class));
     }
 
     /**
@@ -55,36 +124,47 @@ public class CopyRepo {
      *
      * @param copy the copy with updated details.
      * @throws IllegalArgumentException if the copy is not found.
+     * @throws ConflictException if the copy was changed since it was read.
      */
     public void updateCopy(Copy copy) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
+        metrics.run("updateCopy", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
 
-        try {
-            Copy managedCopy = em.createQuery(
-                            "SELECT c FROM Copy c LEFT JOIN FETCH c.borrowings WHERE c.id = :id", Copy.class)
-                    .setParameter("id", copy.getId())
-                    .getSingleResult();
+            try {
+                Copy managedCopy;
+                try {
+                    managedCopy = em.createQuery(
+                                    "SELECT c FROM Copy c LEFT JOIN FETCH c.borrowings WHERE c.id = :id", Copy.class)
+                            .setParameter("id", copy.getId())
+                            .getSingleResult();
+                } catch (NoResultException e) {
+                    throw new IllegalArgumentException("Copy not found in the database.", e);
+                }
+                if (copy.getVersion() != null && !copy.getVersion().equals(managedCopy.getVersion())) {
+                    throw new ConflictException("The copy was changed since it was read.", null);
+                }
 
-            if (managedCopy == null) {
-                throw new IllegalArgumentException("Copy not found in the database.");
-            }
+                managedCopy.setStatus(copy.getStatus());
+                managedCopy.setCopyNumber(copy.getCopyNumber());
 
-            managedCopy.setStatus(copy.getStatus());
-            managedCopy.setCopyNumber(copy.getCopyNumber());
+                if (copy.getBook() != null) {
+                    Book managedBook = em.find(Book.class, copy.getBook().getId());
+                    managedCopy.setBook(managedBook);
+                }
 
-            if (copy.getBook() != null) {
-                Book managedBook = em.find(Book.class, copy.getBook().getId());
-                managedCopy.setBook(managedBook);
+                em.flush();
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                if (ConflictException.isConflict(e) && !(e instanceof ConflictException)) {
+                    throw new ConflictException("The copy was changed since it was read.", e);
+                }
+                throw e;
+            } finally {
+                em.close();
             }
-
-            em.getTransaction().commit();
-        } catch (Exception e) {
-            em.getTransaction().rollback();
-            throw e;
-        } finally {
-            em.close();
-        }
+        });
     }
 
     /**
@@ -93,31 +173,72 @@ public class CopyRepo {
      * @param id the ID of the copy to delete.
      */
     public void deleteCopy(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
+        metrics.run("deleteCopy", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
 
-        Copy copy = em.find(Copy.class, id);
-        if (copy != null) {
-            em.remove(copy);
-        }
+            try {
+                Copy copy = em.find(Copy.class, id);
+                if (copy != null) {
+                    em.remove(copy);
+                }
 
-        em.getTransaction().commit();
-        em.close();
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
-     * Retrieves all copies with the status "Available".
+     * Retrieves all available copies. The status column is indexed, so only the available copies are read.
+     * The result is kept in the query cache until the Copies table changes,
+     * so a borrow or return is reflected by the next call.
      *
      * @return a list of available copies.
      */
     public List<Copy> getAvailableCopies() {
-        EntityManager em = emf.createEntityManager();
-        try {
-            return em.createQuery("SELECT c FROM Copy c WHERE c.status = 'Available'", Copy.class)
-                    .getResultList();
-        } finally {
-            em.close();
-        }
+        return metrics.call("getAvailableCopies", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery("SELECT c FROM Copy c WHERE c.status = :status", Copy.class)
+                        .setParameter("status", CopyStatus.AVAILABLE)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .setHint(HibernateHints.HINT_CACHEABLE, true)
+                        .setHint(HibernateHints.HINT_CACHE_REGION, CatalogCache.QUERY_REGION)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Gets a row for every available copy, with the details of its book.
+     * The copies and books are not loaded as entities. The result is kept in the query cache
+     * until the Copies or Books table changes.
+     *
+     * @return the rows of the available copies, ordered by copy ID.
+     */
+    public List<AvailableCopyRow> getAvailableCopyRows() {
+        return metrics.call("getAvailableCopyRows", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery(
+                                "SELECT new Repositories.AvailableCopyRow(c.id, b.id, b.title, b.author, b.isbn, c.copyNumber) "
+                                        + "FROM Copy c JOIN c.book b WHERE c.status = :status ORDER BY c.id",
+                                AvailableCopyRow.class)
+                        .setParameter("status", CopyStatus.AVAILABLE)
+                        .setHint(HibernateHints.HINT_CACHEABLE, true)
+                        .setHint(HibernateHints.HINT_CACHE_REGION, CatalogCache.QUERY_REGION)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -129,21 +250,27 @@ public class CopyRepo {
      * @throws IllegalStateException if multiple copies match the given details.
      */
     public Copy findCopyByNumberWithBorrowings(int copyNumber, int bookId) {
-        EntityManager em = emf.createEntityManager();
-        try {
-            return em.createQuery(
-                            "SELECT c FROM Copy c LEFT JOIN FETCH c.borrowings WHERE c.copyNumber = :copyNumber AND c.book.id = :bookId",
-                            Copy.class
-                    )
-                    .setParameter("copyNumber", copyNumber)
-                    .setParameter("bookId", bookId)
-                    .getSingleResult();
-        } catch (NoResultException e) {
-            return null;
-        } catch (NonUniqueResultException e) {
-            throw new IllegalStateException("Multiple copies found for the same copyNumber and bookId.", e);
-        } finally {
-            em.close();
-        }
+        return metrics.call("findCopyByNumberWithBorrowings", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery(
+                                "SELECT c FROM Copy c LEFT JOIN FETCH c.borrowings WHERE c.copyNumber = :copyNumber AND c.book.id = :bookId",
+                                Copy.class
+                        )
+                        .setParameter("copyNumber", copyNumber)
+                        .setParameter("bookId", bookId)
+                        .getSingleResult();
+            } catch (NoResultException e) {
+                return null;
+            } catch (NonUniqueResultException e) {
+                throw new IllegalStateException("Multiple copies found for the same copyNumber and bookId.", e);
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    private EntityManagerFactory emf() {
+        return PersistenceManager.getEntityManagerFactory();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package Repositories;
+
+/**
+ * The JMX view of Hibernate's statistics for the shared EntityManagerFactory, registered as
+ * {@code LMS:type=HibernateStatistics}. All values are zero while the factory is not running
+ * or when statistics are disabled (db.statistics in config.properties).
+ */
+public interface HibernateStatisticsMXBean {
+
+    /**
+     * Gets the number of executed HQL and SQL queries.
+     *
+     * @return the number of queries.
+     */
+    long getQueryExecutionCount();
+
+    /**
+     * Gets the time the slowest query took.
+     *
+     * @return the longest query time in milliseconds.
+     */
+    long getQueryExecutionMaxTimeMillis();
+
+    /**
+     * Gets the slowest query.
+     *
+     * @return the query string of the slowest query, or null if none ran.
+     */
+    String getSlowestQuery();
+
+    /**
+     * Gets the number of entities loaded from the database or the second-level cache.
+     *
+     * @return the number of entity loads.
+     */
+    long getEntityLoadCount();
+
+    /**
+     * Gets the number of entities fetched separately, for example lazy associations.
+     *
+     * @return the number of entity fetches.
+     */
+    long getEntityFetchCount();
+
+    /**
+     * Gets the number of second-level cache lookups that found their entry.
+     *
+     * @return the number of cache hits.
+     */
+    long getSecondLevelCacheHitCount();
+
+    /**
+     * Gets the number of second-level cache lookups that had to go to the database.
+     *
+     * @return the number of cache misses.
+     */
+    long getSecondLevelCacheMissCount();
+
+    /**
+     * Gets the share of second-level cache lookups that found their entry.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if the cache was not used yet.
+     */
+    double getSecondLevelCacheHitRatio();
+
+    /**
+     * Gets the number of flushes of a persistence context.
+     *
+     * @return the number of flushes.
+     */
+    long getFlushCount();
+
+    /**
+     * Gets the number of JDBC statements prepared.
+     *
+     * @return the number of prepared statements.
+     */
+    long getPrepareStatementCount();
+
+    /**
+     * Gets the number of committed or rolled back transactions.
+     *
+     * @return the number of transactions.
+     */
+    long getTransactionCount();
+
+    /**
+     * Sets all Hibernate statistics back to zero.
+     */
+    void clear();
+}
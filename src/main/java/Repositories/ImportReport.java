@@ -0,0 +1,39 @@
+package Repositories;
+
+import java.time.Duration;
+
+/**
+ * The outcome of a bulk import.
+ *
+ * @param imported the number of entities written to the database.
+ * @param chunks the number of transactions the import was committed in.
+ * @param elapsed the wall-clock time the import took.
+ */
+public record ImportReport(long imported, int chunks, Duration elapsed) {
+
+    /**
+     * Gets the import throughput.
+     *
+     * @return the number of entities written per second, or 0 if nothing was imported.
+     */
+    public double perSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? imported : imported * 1000.0 / millis;
+    }
+
+    /**
+     * Combines this report with the report of a later import.
+     *
+     * @param other the report to add.
+     * @return a report holding the totals of both imports.
+     */
+    public ImportReport plus(ImportReport other) {
+        return new ImportReport(imported + other.imported, chunks + other.chunks, elapsed.plus(other.elapsed));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d imported in %d chunk(s), %.1f s (%.0f/s)",
+                imported, chunks, elapsed.toMillis() / 1000.0, perSecond());
+    }
+}
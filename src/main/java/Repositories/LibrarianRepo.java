@@ -3,6 +3,7 @@ package Repositories;
 import Entities.Librarian;
 import Entities.User;
 import jakarta.persistence.*;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
 
@@ -10,7 +11,7 @@ import java.util.List;
  * Handles database operations for Librarian entities.
  */
 public class LibrarianRepo {
-    private EntityManagerFactory emf = Persistence.createEntityManagerFactory("LMS-PU");
+    private final RepositoryMetrics metrics = RepositoryMetrics.forRepository(LibrarianRepo.class);
 
     /**
      * Creates a new librarian in the database.
@@ -18,11 +19,20 @@ public class LibrarianRepo {
      * @param librarian the librarian to be created.
      */
     public void createLibrarian(Librarian librarian) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        em.persist(librarian);
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("createLibrarian", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                em.persist(librarian);
+                em.flush();
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -32,22 +42,65 @@ public class LibrarianRepo {
      * @return the found librarian or null if not found.
      */
     public Librarian findLibrarianById(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        Librarian librarian = em.find(Librarian.class, id);
-        em.close();
-        return librarian;
+        return metrics.call("findLibrarianById", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.find(Librarian.class, id);
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
      * Retrieves all librarians from the database.
+     * Loads the whole table; on large tables read it in slices with {@link #getLibrariansAfter} instead.
      *
      * @return a list of all librarians.
      */
     public List<Librarian> getAllLibrarians() {
-        EntityManager em = emf.createEntityManager();
-        List<Librarian> librarians = em.createQuery("SELECT l FROM Librarian l", Librarian.class).getResultList();
-        em.close();
-        return librarians;
+        return metrics.call("getAllLibrarians", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery("SELECT l FROM Librarian l", Librarian.class)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Gets the next slice of librarians after the given one, ordered by ID.
+     * Pass the ID of the last librarian of a slice to get the following one.
+     *
+     * @param afterId the ID of the last librarian already read, or null to start from the first one.
+     * @param limit the maximum number of librarians to return.
+     * @return up to limit librarians with a greater ID, ordered by ID.
+     */
+    public List<Librarian> getLibrariansAfter(Integer afterId, int limit) {
+        return metrics.call("getLibrariansAfter", () -> Paging.after(emf(), Librarian.class, afterId, limit));
+    }
+
+    /**
+     * Gets one page of librarians, ordered by ID.
+     *
+     * @param offset the number of librarians to skip.
+     * @param limit the maximum number of librarians to return.
+     * @return up to limit librarians starting at the given position.
+     */
+    public List<Librarian> getLibrariansPage(int offset, int limit) {
+        return metrics.call("getLibrariansPage", () -> Paging.page(emf(), Librarian.class, offset, limit));
+    }
+
+    /**
+     * Counts all librarians in the database.
+     *
+     * @return the number of librarians.
+     */
+    public long countLibrarians() {
+        return metrics.call("countLibrarians", () -> Paging.count(emf(), Librarian.class));
     }
 
     /**
@@ -56,11 +109,19 @@ public class LibrarianRepo {
      * @param librarian the librarian with updated details.
      */
     public void updateLibrarian(Librarian librarian) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        em.merge(librarian);
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("updateLibrarian", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                em.merge(librarian);
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -70,21 +131,33 @@ public class LibrarianRepo {
      * @param id the ID of the librarian to delete.
      */
     public void deleteLibrarian(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
+        metrics.run("deleteLibrarian", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
 
-        Librarian librarian = em.find(Librarian.class, id);
-        if (librarian != null) {
-            User user = librarian.getUser();
-            if (user != null) {
-                user.setLibrarian(null); // Remove the association with the user
-                em.merge(user); // Update the user in the database
-            }
+            try {
+                Librarian librarian = em.find(Librarian.class, id);
+                if (librarian != null) {
+                    User user = librarian.getUser();
+                    if (user != null) {
+                        user.setLibrarian(null); // Remove the association with the user
+                        em.merge(user); // Update the user in the database
+                    }
+
+                    em.remove(librarian); // Remove the librarian
+                }
 
-            em.remove(librarian); // Remove the librarian
-        }
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
+    }
 
-        em.getTransaction().commit();
-        em.close();
+    private EntityManagerFactory emf() {
+        return PersistenceManager.getEntityManagerFactory();
     }
-}
\ No newline at end of file
+}
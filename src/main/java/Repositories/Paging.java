@@ -0,0 +1,110 @@
+package Repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.List;
+
+/**
+ * Shared queries for reading a table in bounded slices instead of loading it whole.
+ * All slices are ordered by id, the primary key, so both keyset and offset reads are served from its index
+ * and every row appears exactly once while a caller walks through the table.
+ * Slices are read-only: the returned entities are not tracked for changes, so no dirty-checking snapshot is kept.
+ */
+final class Paging {
+
+    private Paging() {
+    }
+
+    /**
+     * Gets the entities with an id greater than the given one (keyset pagination).
+     * The cost of a call does not grow with the position in the table.
+     *
+     * @param emf the factory to open the EntityManager from.
+     * @param type the entity class.
+     * @param afterId the id of the last entity of the previous slice, or null to start at the beginning.
+     * @param limit the maximum number of entities to return.
+     * @return up to limit entities, ordered by id.
+     * @throws IllegalArgumentException if limit is not positive.
+     */
+    static <T> List<T> after(EntityManagerFactory emf, Class<T> type, Integer afterId, int limit) {
+        checkLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT e FROM " + type.getSimpleName() + " e WHERE e.id > :afterId ORDER BY e.id", type)
+                    .setParameter("afterId", afterId == null ? Integer.MIN_VALUE : afterId)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Gets the entities at the given position (offset pagination).
+     * Use this when a caller needs to jump to an arbitrary row; walking the whole table is cheaper with {@link #after}.
+     *
+     * @param emf the factory to open the EntityManager from.
+     * @param type the entity class.
+     * @param offset the number of entities to skip.
+     * @param limit the maximum number of entities to return.
+     * @return up to limit entities, ordered by id.
+     * @throws IllegalArgumentException if offset is negative or limit is not positive.
+     */
+    static <T> List<T> page(EntityManagerFactory emf, Class<T> type, int offset, int limit) {
+        return page(emf, "SELECT e FROM " + type.getSimpleName() + " e ORDER BY e.id", type, offset, limit);
+    }
+
+    /**
+     * Gets the results of a query at the given position (offset pagination).
+     * The query must order its results by a unique key so pages do not overlap.
+     *
+     * @param emf the factory to open the EntityManager from.
+     * @param jpql the query, for example a constructor expression that selects a row record.
+     * @param type the result class.
+     * @param offset the number of results to skip.
+     * @param limit the maximum number of results to return.
+     * @return up to limit results.
+     * @throws IllegalArgumentException if offset is negative or limit is not positive.
+     */
+    static <R> List<R> page(EntityManagerFactory emf, String jpql, Class<R> type, int offset, int limit) {
+        checkLimit(limit);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative: " + offset);
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery(jpql, type)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .setFirstResult(offset)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Counts the entities of a type.
+     *
+     * @param emf the factory to open the EntityManager from.
+     * @param type the entity class.
+     * @return the number of rows in the entity's table.
+     */
+    static long count(EntityManagerFactory emf, Class<?> type) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT COUNT(e) FROM " + type.getSimpleName() + " e", Long.class).getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+    }
+}
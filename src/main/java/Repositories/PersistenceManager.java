@@ -0,0 +1,210 @@
+package Repositories;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Provides the single EntityManagerFactory shared by the whole application.
+ * Repositories, dashboards and command-line tools all obtain their factory from here,
+ * so the persistence unit is booted once per JVM instead of once per repository.
+ * The factory is started on first use (or explicitly through {@link #startup()}) and
+ * is closed by a shutdown hook when the JVM exits.
+ * Connections are served by a HikariCP pool configured from the db.* settings in config.properties,
+ * and statements slower than db.slowQuery.thresholdMs are written to the slow query log.
+ */
+public final class PersistenceManager {
+    /**
+     * The name of the persistence unit declared in META-INF/persistence.xml.
+     */
+    public static final String PERSISTENCE_UNIT = "LMS-PU";
+
+    /**
+     * The name of the connection pool, also used for its JMX registration.
+     */
+    public static final String POOL_NAME = "LMS-Pool";
+
+    private static volatile EntityManagerFactory emf;
+    private static Thread shutdownHook;
+    private static final Object backgroundStartupLock = new Object();
+    private static CompletableFuture<Void> backgroundStartup;
+
+    private PersistenceManager() {
+    }
+
+    /**
+     * Boots the persistence unit with the settings from persistence.xml and config.properties.
+     * Does nothing if the factory is already running.
+     */
+    public static void startup() {
+        startup(Map.of());
+    }
+
+    /**
+     * Boots the persistence unit, overriding settings from persistence.xml and config.properties
+     * with the given properties (for example a different JDBC URL for an isolated database).
+     * Pending schema migrations are applied first; Hibernate itself never changes the schema.
+     * Does nothing if the factory is already running.
+     *
+     * @param overrides the properties that take precedence over the configured settings.
+     */
+    public static synchronized void startup(Map<String, ?> overrides) {
+        if (emf != null && emf.isOpen()) {
+            return;
+        }
+
+        Map<String, Object> settings = configuredSettings();
+        settings.putAll(overrides);
+        long start = System.nanoTime();
+        SchemaMigrations.migrate(settings);
+        StartupProfile.record(StartupProfile.SCHEMA_CHECK, start);
+
+        start = System.nanoTime();
+        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, settings);
+        StartupProfile.record(StartupProfile.HIBERNATE_BOOT, start);
+        RepositoryMetrics.startup();
+
+        if (shutdownHook == null) {
+            shutdownHook = new Thread(PersistenceManager::closeFactory, "lms-persistence-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+
+    /**
+     * Boots the persistence unit on a background thread, so a window can be shown while it starts.
+     * Code that needs the factory before the boot is done simply waits for it in {@link #getEntityManagerFactory()}.
+     *
+     * @return a future completed once the factory is running, or failed with the reason it could not be booted.
+     */
+    public static CompletableFuture<Void> startupInBackground() {
+        // Not synchronized on the class: startup() holds that lock for the whole boot
+        synchronized (backgroundStartupLock) {
+            if (isRunning()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (backgroundStartup == null || backgroundStartup.isDone()) {
+                backgroundStartup = CompletableFuture.runAsync(PersistenceManager::startup, runnable -> {
+                    Thread thread = new Thread(runnable, "lms-persistence-boot");
+                    thread.setDaemon(true);
+                    thread.start();
+                });
+            }
+            return backgroundStartup;
+        }
+    }
+
+    /**
+     * Gets the shared EntityManagerFactory, booting the persistence unit if it is not running yet.
+     * Look the factory up on every use rather than keeping it in a field: after {@link #shutdown()} and a new
+     * start the old factory is closed, and code that kept it would fail while code that looks it up keeps working.
+     *
+     * @return the shared EntityManagerFactory.
+     */
+    public static EntityManagerFactory getEntityManagerFactory() {
+        EntityManagerFactory factory = emf;
+        if (factory == null || !factory.isOpen()) {
+            synchronized (PersistenceManager.class) {
+                startup();
+                factory = emf;
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Checks whether the shared factory has been started and not closed yet.
+     *
+     * @return true if the factory is running, false otherwise.
+     */
+    public static boolean isRunning() {
+        EntityManagerFactory factory = emf;
+        return factory != null && factory.isOpen();
+    }
+
+    /**
+     * Gets the current counters of the connection pool behind the shared factory.
+     *
+     * @return a snapshot of the active, idle, total and waiting connection counts.
+     */
+    public static ConnectionPoolStats getConnectionPoolStats() {
+        HikariPoolMXBean pool = getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class)
+                .unwrap(HikariDataSource.class)
+                .getHikariPoolMXBean();
+        return new ConnectionPoolStats(
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection());
+    }
+
+    /**
+     * Closes the shared factory and releases its connections.
+     * A later call to {@link #getEntityManagerFactory()} boots a new factory.
+     */
+    public static synchronized void shutdown() {
+        if (shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // the JVM is already shutting down, the hook will run on its own
+            }
+            shutdownHook = null;
+        }
+        closeFactory();
+    }
+
+    /**
+     * Builds the JDBC, connection pool, batching, fetching, statistics and slow query log settings from config.properties.
+     *
+     * @return a mutable map of the configured settings.
+     */
+    static Map<String, Object> configuredSettings() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("jakarta.persistence.jdbc.driver", AppConfig.get("db.driver", "org.h2.Driver"));
+        settings.put("jakarta.persistence.jdbc.url", AppConfig.get("db.url", "jdbc:h2:file:./DBs/LibraryDB"));
+        settings.put("jakarta.persistence.jdbc.user", AppConfig.get("db.user", "sa"));
+        settings.put("jakarta.persistence.jdbc.password", AppConfig.get("db.password", ""));
+
+        settings.put("hibernate.connection.provider_class", SlowQueryConnectionProvider.class.getName());
+        settings.put("hibernate.hikari.poolName", POOL_NAME);
+        settings.put("hibernate.hikari.registerMbeans", "true");
+        settings.put("hibernate.hikari.minimumIdle", AppConfig.get("db.pool.minIdle", "2"));
+        settings.put("hibernate.hikari.maximumPoolSize", AppConfig.get("db.pool.maxSize", "10"));
+        settings.put("hibernate.hikari.connectionTimeout", AppConfig.get("db.pool.connectionTimeoutMs", "30000"));
+        settings.put("hibernate.hikari.idleTimeout", AppConfig.get("db.pool.idleTimeoutMs", "600000"));
+        settings.put("hibernate.hikari.maxLifetime", AppConfig.get("db.pool.maxLifetimeMs", "1800000"));
+        settings.put("hibernate.hikari.leakDetectionThreshold", AppConfig.get("db.pool.leakDetectionThresholdMs", "0"));
+
+        settings.put("hibernate.jdbc.batch_size", AppConfig.get("db.batchSize", "50"));
+        settings.put("hibernate.jdbc.fetch_size", AppConfig.get("db.fetchSize", "500"));
+        settings.put("hibernate.generate_statistics", AppConfig.get("db.statistics", "true"));
+        // The statistics are read over JMX; without this Hibernate also prints a summary of every session
+        settings.put("hibernate.session.events.log", "false");
+
+        settings.put(SlowQueryLog.THRESHOLD_SETTING, AppConfig.get("db.slowQuery.thresholdMs", "200"));
+        settings.put(SlowQueryLog.FILE_SETTING, AppConfig.get("db.slowQuery.file", "./logs/slow-queries.%g.log"));
+        settings.put(SlowQueryLog.MAX_FILE_BYTES_SETTING, AppConfig.get("db.slowQuery.maxFileBytes", "10485760"));
+        settings.put(SlowQueryLog.MAX_FILES_SETTING, AppConfig.get("db.slowQuery.maxFiles", "5"));
+        return settings;
+    }
+
+    /**
+     * Closes the factory if it is open. Used both by {@link #shutdown()} and by the shutdown hook.
+     */
+    private static synchronized void closeFactory() {
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+        emf = null;
+    }
+}
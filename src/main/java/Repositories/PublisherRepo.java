@@ -2,6 +2,7 @@ package Repositories;
 
 import Entities.Publisher;
 import jakarta.persistence.*;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
 
@@ -9,7 +10,7 @@ import java.util.List;
  * Handles database operations for Publisher entities.
  */
 public class PublisherRepo {
-    private EntityManagerFactory emf = Persistence.createEntityManagerFactory("LMS-PU");
+    private final RepositoryMetrics metrics = RepositoryMetrics.forRepository(PublisherRepo.class);
 
     /**
      * Adds a new publisher to the database.
@@ -17,11 +18,20 @@ public class PublisherRepo {
      * @param publisher the publisher to add.
      */
     public void createPublisher(Publisher publisher) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        em.persist(publisher);
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("createPublisher", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                em.persist(publisher);
+                em.flush();
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -31,22 +41,68 @@ public class PublisherRepo {
      * @return the found publisher, or null if not found.
      */
     public Publisher findPublisherById(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        Publisher publisher = em.find(Publisher.class, id);
-        em.close();
-        return publisher;
+        return metrics.call("findPublisherById", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.find(Publisher.class, id);
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
      * Retrieves all publishers from the database.
+     * The result is kept in the query cache until the Publishers table changes.
+     * Loads the whole table; on large tables read it in slices with {@link #getPublishersAfter} instead.
      *
      * @return a list of all publishers.
      */
     public List<Publisher> getAllPublishers() {
-        EntityManager em = emf.createEntityManager();
-        List<Publisher> publishers = em.createQuery("SELECT p FROM Publisher p", Publisher.class).getResultList();
-        em.close();
-        return publishers;
+        return metrics.call("getAllPublishers", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery("SELECT p FROM Publisher p", Publisher.class)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .setHint(HibernateHints.HINT_CACHEABLE, true)
+                        .setHint(HibernateHints.HINT_CACHE_REGION, CatalogCache.QUERY_REGION)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Gets the next slice of publishers after the given one, ordered by ID.
+     * Pass the ID of the last publisher of a slice to get the following one.
+     *
+     * @param afterId the ID of the last publisher already read, or null to start from the first one.
+     * @param limit the maximum number of publishers to return.
+     * @return up to limit publishers with a greater ID, ordered by ID.
+     */
+    public List<Publisher> getPublishersAfter(Integer afterId, int limit) {
+        return metrics.call("getPublishersAfter", () -> Paging.after(emf(), Publisher.class, afterId, limit));
+    }
+
+    /**
+     * Gets one page of publishers, ordered by ID.
+     *
+     * @param offset the number of publishers to skip.
+     * @param limit the maximum number of publishers to return.
+     * @return up to limit publishers starting at the given position.
+     */
+    public List<Publisher> getPublishersPage(int offset, int limit) {
+        return metrics.call("getPublishersPage", () -> Paging.page(emf(), Publisher.class, offset, limit));
+    }
+
+    /**
+     * Counts all publishers in the database.
+     *
+     * @return the number of publishers.
+     */
+    public long countPublishers() {
+        return metrics.call("countPublishers", () -> Paging.count(emf(), Publisher.class));
     }
 
     /**
@@ -55,38 +111,50 @@ public class PublisherRepo {
      * @param publisher the publisher with updated details.
      */
     public void updatePublisher(Publisher publisher) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        em.merge(publisher);
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("updatePublisher", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                em.merge(publisher);
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
      * Finds a publisher by its name. If multiple publishers have the same name,
-     * an exception is thrown.
+     * an exception is thrown. The lookup is kept in the query cache until the Publishers table changes.
      *
      * @param name the name of the publisher to find.
      * @return the found publisher, or null if not found.
      */
     public Publisher findPublisherByName(String name) {
-        EntityManager em = emf.createEntityManager();
-        try {
-            List<Publisher> publishers = em.createQuery(
-                            "SELECT p FROM Publisher p WHERE p.name = :name", Publisher.class)
-                    .setParameter("name", name)
-                    .getResultList();
+        return metrics.call("findPublisherByName", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                List<Publisher> publishers = em.createQuery(
+                                "SELECT p FROM Publisher p WHERE p.name = :name", Publisher.class)
+                        .setParameter("name", name)
+                        .setHint(HibernateHints.HINT_CACHEABLE, true)
+                        .setHint(HibernateHints.HINT_CACHE_REGION, CatalogCache.QUERY_REGION)
+                        .getResultList();
 
-            if (publishers.isEmpty()) {
-                return null;
-            } else if (publishers.size() > 1) {
-                throw new NonUniqueResultException("Multiple publishers found with the name: " + name);
-            }
+                if (publishers.isEmpty()) {
+                    return null;
+                } else if (publishers.size() > 1) {
+                    throw new NonUniqueResultException("Multiple publishers found with the name: " + name);
+                }
 
-            return publishers.get(0);
-        } finally {
-            em.close();
-        }
+                return publishers.get(0);
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -97,14 +165,26 @@ public class PublisherRepo {
      * @throws PersistenceException if the publisher has associated books.
      */
     public void deletePublisher(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        Publisher publisher = em.find(Publisher.class, id);
-        if (publisher != null && !publisher.getBooks().isEmpty()) {
-            throw new PersistenceException("Cannot delete publisher with associated books.");
-        }
-        em.remove(publisher);
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("deletePublisher", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                Publisher publisher = em.find(Publisher.class, id);
+                if (publisher != null && !publisher.getBooks().isEmpty()) {
+                    throw new PersistenceException("Cannot delete publisher with associated books.");
+                }
+                em.remove(publisher);
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    private EntityManagerFactory emf() {
+        return PersistenceManager.getEntityManagerFactory();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package Repositories;
+
+/**
+ * The JMX view of the metrics of one repository method, registered as
+ * {@code LMS:type=Repository,repository=<class>,method=<method>}.
+ * All values are counted since the application started or since the last {@link #reset()}.
+ */
+public interface RepositoryMethodMXBean {
+
+    /**
+     * Gets the number of completed calls, including failed ones.
+     *
+     * @return the number of calls.
+     */
+    long getCalls();
+
+    /**
+     * Gets the number of calls that ended with an exception.
+     *
+     * @return the number of failed calls.
+     */
+    long getErrors();
+
+    /**
+     * Gets the number of rows the calls returned: the size of a returned list, 1 for a found entity or value.
+     *
+     * @return the number of rows returned.
+     */
+    long getRowsReturned();
+
+    /**
+     * Gets the median call time.
+     *
+     * @return the 50th percentile of the call times in milliseconds.
+     */
+    double getP50Millis();
+
+    /**
+     * Gets the call time that 99 in 100 calls stayed below.
+     *
+     * @return the 99th percentile of the call times in milliseconds.
+     */
+    double getP99Millis();
+
+    /**
+     * Gets the slowest call time.
+     *
+     * @return the longest call time in milliseconds.
+     */
+    double getMaxMillis();
+
+    /**
+     * Gets the average call time.
+     *
+     * @return the mean call time in milliseconds.
+     */
+    double getMeanMillis();
+
+    /**
+     * Sets all counters of the method back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,423 @@
+package Repositories;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Times the calls of every public repository method and publishes the results over JMX.
+ * <p>
+ * Each repository wraps its public methods in {@link #call} or {@link #run}, which count the calls, the
+ * failed calls and the rows returned, and record the call time in a histogram for the percentiles.
+ * The first call of a method registers it as an MBean under {@code LMS:type=Repository}; Hibernate's own
+ * statistics are registered as {@code LMS:type=HibernateStatistics} when the persistence unit starts.
+ * Both can be watched with JConsole or any other JMX client.
+ * <p>
+ * When metrics.dumpFile is set in config.properties, a snapshot of all metrics is also appended to that
+ * file every metrics.dumpIntervalSeconds seconds.
+ */
+public final class RepositoryMetrics {
+    private static final Logger LOGGER = Logger.getLogger(RepositoryMetrics.class.getName());
+
+    /**
+     * The JMX domain the metrics are registered under.
+     */
+    public static final String JMX_DOMAIN = "LMS";
+
+    private static final Map<String, Map<String, MethodMetrics>> REPOSITORIES = new ConcurrentHashMap<>();
+    private static final HibernateStatisticsBean HIBERNATE_STATISTICS = new HibernateStatisticsBean();
+    private static final ThreadLocal<String> CURRENT_METHOD = new ThreadLocal<>();
+    private static boolean started;
+
+    private final String repository;
+    private final Map<String, MethodMetrics> methods;
+
+    private RepositoryMetrics(String repository) {
+        this.repository = repository;
+        this.methods = REPOSITORIES.computeIfAbsent(repository, name -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Gets the metrics of one repository class. All instances of the class share the same metrics.
+     *
+     * @param type the repository class.
+     * @return the metrics of the repository.
+     */
+    static RepositoryMetrics forRepository(Class<?> type) {
+        return new RepositoryMetrics(type.getSimpleName());
+    }
+
+    /**
+     * Runs a repository method that returns a result and records its time and outcome.
+     *
+     * @param method the name of the method.
+     * @param body the body of the method.
+     * @param <T> the type of the result.
+     * @return the result of the body.
+     */
+    <T> T call(String method, Supplier<T> body) {
+        MethodMetrics metrics = method(method);
+        String caller = CURRENT_METHOD.get();
+        CURRENT_METHOD.set(metrics.name);
+        long start = System.nanoTime();
+        try {
+            T result = body.get();
+            metrics.record(System.nanoTime() - start, rows(result));
+            return result;
+        } catch (RuntimeException | Error e) {
+            metrics.recordError(System.nanoTime() - start);
+            throw e;
+        } finally {
+            CURRENT_METHOD.set(caller);
+        }
+    }
+
+    /**
+     * Runs a repository method without a result and records its time and outcome.
+     *
+     * @param method the name of the method.
+     * @param body the body of the method.
+     */
+    void run(String method, Runnable body) {
+        MethodMetrics metrics = method(method);
+        String caller = CURRENT_METHOD.get();
+        CURRENT_METHOD.set(metrics.name);
+        long start = System.nanoTime();
+        try {
+            body.run();
+            metrics.record(System.nanoTime() - start, 0);
+        } catch (RuntimeException | Error e) {
+            metrics.recordError(System.nanoTime() - start);
+            throw e;
+        } finally {
+            CURRENT_METHOD.set(caller);
+        }
+    }
+
+    /**
+     * Gets the repository method running on the current thread, used to tell where a slow statement came from.
+     *
+     * @return the method as "repository.method", or null if no repository method is running.
+     */
+    static String currentMethod() {
+        return CURRENT_METHOD.get();
+    }
+
+    /**
+     * Gets the metrics of one repository method.
+     *
+     * @param repository the simple name of the repository class, e.g. BookRepo.
+     * @param method the name of the method.
+     * @return the metrics of the method, or null if it was never called.
+     */
+    public static RepositoryMethodMXBean get(String repository, String method) {
+        Map<String, MethodMetrics> methods = REPOSITORIES.get(repository);
+        return methods == null ? null : methods.get(method);
+    }
+
+    /**
+     * Gets the metrics of every repository method called so far.
+     *
+     * @return the metrics by "repository.method", sorted by name.
+     */
+    public static Map<String, RepositoryMethodMXBean> getAll() {
+        Map<String, RepositoryMethodMXBean> all = new TreeMap<>();
+        REPOSITORIES.forEach((repository, methods) ->
+                methods.forEach((method, metrics) -> all.put(repository + "." + method, metrics)));
+        return all;
+    }
+
+    /**
+     * Gets Hibernate's statistics for the shared EntityManagerFactory.
+     *
+     * @return the statistics, all zero while the factory is not running.
+     */
+    public static HibernateStatisticsMXBean getHibernateStatistics() {
+        return HIBERNATE_STATISTICS;
+    }
+
+    /**
+     * Appends a snapshot of all repository metrics and Hibernate statistics to a file.
+     *
+     * @param file the file to append to; it is created if it doesn't exist.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void dump(Path file) throws IOException {
+        StringBuilder text = new StringBuilder("--- ").append(LocalDateTime.now()).append(System.lineSeparator());
+        getAll().forEach((name, metrics) -> text.append(String.format(
+                "%s calls=%d errors=%d rows=%d p50=%.2fms p99=%.2fms max=%.2fms%n",
+                name, metrics.getCalls(), metrics.getErrors(), metrics.getRowsReturned(),
+                metrics.getP50Millis(), metrics.getP99Millis(), metrics.getMaxMillis())));
+        HibernateStatisticsMXBean hibernate = HIBERNATE_STATISTICS;
+        text.append(String.format(
+                "Hibernate queries=%d slowestQuery=%dms entityLoads=%d entityFetches=%d l2Hits=%d l2Misses=%d "
+                        + "l2HitRatio=%.2f flushes=%d statements=%d transactions=%d%n",
+                hibernate.getQueryExecutionCount(), hibernate.getQueryExecutionMaxTimeMillis(),
+                hibernate.getEntityLoadCount(), hibernate.getEntityFetchCount(),
+                hibernate.getSecondLevelCacheHitCount(), hibernate.getSecondLevelCacheMissCount(),
+                hibernate.getSecondLevelCacheHitRatio(), hibernate.getFlushCount(),
+                hibernate.getPrepareStatementCount(), hibernate.getTransactionCount()));
+        Files.writeString(file, text, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Registers the Hibernate statistics MBean and starts the periodic dump if one is configured.
+     * Called by {@link PersistenceManager} when the persistence unit starts; only the first call has an effect.
+     */
+    static synchronized void startup() {
+        if (started) {
+            return;
+        }
+        started = true;
+        register(HIBERNATE_STATISTICS, "type=HibernateStatistics");
+
+        String dumpFile = AppConfig.get("metrics.dumpFile", null);
+        if (dumpFile != null) {
+            Path file = Path.of(dumpFile);
+            long interval = Math.max(1, AppConfig.getLong("metrics.dumpIntervalSeconds", 60));
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "lms-metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(() -> {
+                try {
+                    dump(file);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Could not write the repository metrics to " + file, e);
+                }
+            }, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    private MethodMetrics method(String method) {
+        MethodMetrics metrics = methods.get(method);
+        if (metrics == null) {
+            metrics = methods.computeIfAbsent(method, name -> {
+                MethodMetrics created = new MethodMetrics(repository + "." + name);
+                register(created, "type=Repository,repository=" + repository + ",method=" + name);
+                return created;
+            });
+        }
+        return metrics;
+    }
+
+    /**
+     * Counts the rows in a method result: the size of a collection, nothing for a missing result, a flag
+     * or nothing at all, and one row for anything else (an entity, a count, a report).
+     *
+     * @param result the result of the method.
+     * @return the number of rows.
+     */
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        return result == null || result instanceof Boolean ? 0 : 1;
+    }
+
+    private static void register(Object bean, String properties) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(bean, new ObjectName(JMX_DOMAIN + ":" + properties));
+        } catch (JMException e) {
+            // Metrics are still collected and dumped, only not visible over JMX
+            LOGGER.log(Level.WARNING, "Could not register " + properties + " over JMX", e);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * The counters and call time histogram of one repository method.
+     * Calls are recorded without locking; the histogram is only locked while it is read.
+     */
+    static final class MethodMetrics implements RepositoryMethodMXBean {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final Recorder recorder = new Recorder(3);
+        private final Histogram total = new Histogram(3);
+        private Histogram interval;
+
+        MethodMetrics(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, long returnedRows) {
+            recorder.recordValue(nanos);
+            calls.increment();
+            rows.add(returnedRows);
+        }
+
+        void recordError(long nanos) {
+            recorder.recordValue(nanos);
+            calls.increment();
+            errors.increment();
+        }
+
+        @Override
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public long getRowsReturned() {
+            return rows.sum();
+        }
+
+        @Override
+        public double getP50Millis() {
+            return millis(histogram().getValueAtPercentile(50));
+        }
+
+        @Override
+        public double getP99Millis() {
+            return millis(histogram().getValueAtPercentile(99));
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return millis(histogram().getMaxValue());
+        }
+
+        @Override
+        public double getMeanMillis() {
+            return histogram().getMean() / 1_000_000.0;
+        }
+
+        @Override
+        public synchronized void reset() {
+            recorder.reset();
+            total.reset();
+            calls.reset();
+            errors.reset();
+            rows.reset();
+        }
+
+        /**
+         * Adds the calls recorded since the last read to the total histogram and returns a copy of it.
+         *
+         * @return the histogram of all recorded call times.
+         */
+        private synchronized Histogram histogram() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return total.copy();
+        }
+    }
+
+    /**
+     * Reads Hibernate's statistics from the shared factory without starting it.
+     */
+    static final class HibernateStatisticsBean implements HibernateStatisticsMXBean {
+
+        @Override
+        public long getQueryExecutionCount() {
+            return read(Statistics::getQueryExecutionCount);
+        }
+
+        @Override
+        public long getQueryExecutionMaxTimeMillis() {
+            return read(Statistics::getQueryExecutionMaxTime);
+        }
+
+        @Override
+        public String getSlowestQuery() {
+            Statistics statistics = statistics();
+            return statistics == null ? null : statistics.getQueryExecutionMaxTimeQueryString();
+        }
+
+        @Override
+        public long getEntityLoadCount() {
+            return read(Statistics::getEntityLoadCount);
+        }
+
+        @Override
+        public long getEntityFetchCount() {
+            return read(Statistics::getEntityFetchCount);
+        }
+
+        @Override
+        public long getSecondLevelCacheHitCount() {
+            return read(Statistics::getSecondLevelCacheHitCount);
+        }
+
+        @Override
+        public long getSecondLevelCacheMissCount() {
+            return read(Statistics::getSecondLevelCacheMissCount);
+        }
+
+        @Override
+        public double getSecondLevelCacheHitRatio() {
+            long hits = getSecondLevelCacheHitCount();
+            long lookups = hits + getSecondLevelCacheMissCount();
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public long getFlushCount() {
+            return read(Statistics::getFlushCount);
+        }
+
+        @Override
+        public long getPrepareStatementCount() {
+            return read(Statistics::getPrepareStatementCount);
+        }
+
+        @Override
+        public long getTransactionCount() {
+            return read(Statistics::getTransactionCount);
+        }
+
+        @Override
+        public void clear() {
+            Statistics statistics = statistics();
+            if (statistics != null) {
+                statistics.clear();
+            }
+        }
+
+        private static long read(ToLongFunction<Statistics> counter) {
+            Statistics statistics = statistics();
+            return statistics == null ? 0 : counter.applyAsLong(statistics);
+        }
+
+        private static Statistics statistics() {
+            if (!PersistenceManager.isRunning()) {
+                return null;
+            }
+            Statistics statistics = PersistenceManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+            return statistics.isStatisticsEnabled() ? statistics : null;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package Repositories;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the database schema at the version the entities expect by applying numbered SQL scripts.
+ * <p>
+ * The scripts live in {@code db/migration} on the classpath and are named {@code V<version>__<description>.sql}.
+ * Every applied script is recorded in the SCHEMA_VERSION table with a checksum of its statements. On start only
+ * that table is read: scripts that are already recorded are skipped, new ones are applied in order, and a
+ * recorded script whose statements changed stops the start, because the database no longer matches the scripts.
+ * Comments are not part of the checksum, so they can be reworded.
+ * <p>
+ * A database without the SCHEMA_VERSION table was created by Hibernate's schema update. It is first brought
+ * in line by {@link SchemaUpgrade}, after which the baseline script completes it.
+ * <p>
+ * To change the schema, add a new script with the next version to {@link #SCRIPTS}. Never edit the statements of
+ * an applied script.
+ */
+final class SchemaMigrations {
+    /**
+     * The migration scripts in the order they are applied.
+     */
+    static final String[] SCRIPTS = {
+            "V1__baseline.sql",
+            "V2__drop_duplicate_librarian_index.sql"
+    };
+
+    private static final String LOCATION = "db/migration/";
+
+    /**
+     * Checksums recorded before comments were left out of the checksum, for scripts whose comments changed
+     * since. They were taken over the whole file; a database that recorded one gets the current checksum.
+     */
+    private static final Map<Integer, Long> FORMER_CHECKSUMS = Map.of(1, 3629533513L);
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Applies the scripts that are not applied yet to the database described by the given settings.
+     *
+     * @param settings the persistence settings holding the JDBC URL, user and password.
+     * @throws IllegalStateException if a script cannot be applied or an applied script was changed.
+     */
+    static void migrate(Map<String, Object> settings) {
+        String url = (String) settings.get("jakarta.persistence.jdbc.url");
+        String user = (String) settings.get("jakarta.persistence.jdbc.user");
+        String password = (String) settings.get("jakarta.persistence.jdbc.password");
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            Map<Integer, Long> applied = appliedVersions(connection);
+            if (applied == null) {
+                SchemaUpgrade.upgrade(connection);
+                createVersionTable(connection);
+                applied = Map.of();
+            }
+
+            for (String script : SCRIPTS) {
+                int version = version(script);
+                String sql = read(script);
+                long checksum = checksum(sql);
+                Long appliedChecksum = applied.get(version);
+                if (appliedChecksum == null) {
+                    apply(connection, script, version, sql, checksum);
+                } else if (appliedChecksum != checksum) {
+                    if (appliedChecksum != fileChecksum(sql) && !appliedChecksum.equals(FORMER_CHECKSUMS.get(version))) {
+                        throw new IllegalStateException("The migration " + script + " was changed after it was applied to " + url);
+                    }
+                    updateChecksum(connection, version, checksum);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not migrate the database schema at " + url, e);
+        }
+    }
+
+    /**
+     * Reads the versions and checksums of the applied scripts.
+     *
+     * @param connection the open JDBC connection.
+     * @return the checksums by version, or null if the database has no SCHEMA_VERSION table yet.
+     * @throws SQLException if the query fails.
+     */
+    private static Map<Integer, Long> appliedVersions(Connection connection) throws SQLException {
+        if (!SchemaUpgrade.tableExists(connection, "SCHEMA_VERSION")) {
+            return null;
+        }
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM SCHEMA_VERSION")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private static void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE SCHEMA_VERSION (version INTEGER PRIMARY KEY, description VARCHAR(255) NOT NULL, "
+                    + "checksum BIGINT NOT NULL, installed_on TIMESTAMP NOT NULL, execution_ms BIGINT NOT NULL)");
+        }
+    }
+
+    /**
+     * Replaces a checksum recorded over the whole file with the checksum of the script's statements.
+     *
+     * @param connection the open JDBC connection.
+     * @param version the version of the script.
+     * @param checksum the checksum of the statements.
+     * @throws SQLException if the update fails.
+     */
+    private static void updateChecksum(Connection connection, int version, long checksum) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement("UPDATE SCHEMA_VERSION SET checksum = ? WHERE version = ?")) {
+            update.setLong(1, checksum);
+            update.setInt(2, version);
+            update.executeUpdate();
+        }
+    }
+
+    /**
+     * Runs the statements of one script and records it, all in one transaction.
+     *
+     * @param connection the open JDBC connection.
+     * @param script the file name of the script.
+     * @param version the version of the script.
+     * @param sql the contents of the script.
+     * @param checksum the checksum of the statements.
+     * @throws SQLException if a statement fails; the script is then not recorded.
+     */
+    private static void apply(Connection connection, String script, int version, String sql, long checksum) throws SQLException {
+        long start = System.nanoTime();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String command : statements(sql)) {
+                statement.execute(command);
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO SCHEMA_VERSION (version, description, checksum, installed_on, execution_ms) VALUES (?, ?, ?, ?, ?)")) {
+                insert.setInt(1, version);
+                insert.setString(2, description(script));
+                insert.setLong(3, checksum);
+                insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                insert.setLong(5, (System.nanoTime() - start) / 1_000_000);
+                insert.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("The migration " + script + " failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Splits a script into its statements. Statements end with a semicolon at the end of a line,
+     * and lines starting with -- are comments.
+     *
+     * @param sql the contents of a script.
+     * @return the statements, without their semicolons.
+     */
+    private static String[] statements(String sql) {
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            if (!line.strip().startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+        return Arrays.stream(withoutComments.toString().split(";\\s*\n"))
+                .map(String::strip)
+                .filter(statement -> !statement.isEmpty())
+                .map(statement -> statement.endsWith(";") ? statement.substring(0, statement.length() - 1) : statement)
+                .toArray(String[]::new);
+    }
+
+    private static String read(String script) {
+        try (InputStream in = SchemaMigrations.class.getClassLoader().getResourceAsStream(LOCATION + script)) {
+            if (in == null) {
+                throw new IllegalStateException("The migration " + script + " is missing from " + LOCATION);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the migration " + script, e);
+        }
+    }
+
+    /**
+     * Computes the checksum of the statements of a script, leaving out comments and surrounding whitespace.
+     *
+     * @param sql the contents of a script.
+     * @return the checksum.
+     */
+    private static long checksum(String sql) {
+        return fileChecksum(String.join(";\n", statements(sql)));
+    }
+
+    private static long fileChecksum(String sql) {
+        CRC32 crc = new CRC32();
+        crc.update(sql.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static int version(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    private static String description(String script) {
+        return script.substring(script.indexOf("__") + 2, script.lastIndexOf('.')).replace('_', ' ');
+    }
+}
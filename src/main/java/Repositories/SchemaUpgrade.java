@@ -0,0 +1,173 @@
+package Repositories;
+
+import Entities.CopyStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Brings a database created by Hibernate's schema update in line with the baseline migration.
+ * Runs over plain JDBC, once, before {@link SchemaMigrations} applies its first script to a database
+ * that has no schema version yet. Every step checks the current state first and does nothing on an empty database.
+ */
+final class SchemaUpgrade {
+    /**
+     * The block size of every id sequence. Must match the allocationSize of the entities' @SequenceGenerator.
+     */
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String[] ID_TABLES = {"Books", "Borrowings", "Copies", "Librarians", "Publishers", "Users"};
+
+    private static final String[] VERSIONED_TABLES = {"Borrowings", "Copies"};
+
+    private SchemaUpgrade() {
+    }
+
+    /**
+     * Applies all upgrade steps.
+     *
+     * @param connection the open JDBC connection.
+     * @throws SQLException if a step fails.
+     */
+    static void upgrade(Connection connection) throws SQLException {
+        for (String table : ID_TABLES) {
+            switchIdToSequence(connection, table);
+        }
+        for (String table : VERSIONED_TABLES) {
+            addVersionColumn(connection, table);
+        }
+        compactCopyStatus(connection);
+    }
+
+    /**
+     * Moves the id column of a table created with identity columns over to a pooled sequence.
+     * The sequence starts after the highest existing id so no generated id collides with an existing row.
+     *
+     * @param connection the open JDBC connection.
+     * @param table the name of the table.
+     * @throws SQLException if a statement fails.
+     */
+    private static void switchIdToSequence(Connection connection, String table) throws SQLException {
+        if (!tableExists(connection, table)) {
+            return; // a new database, Hibernate creates the table and its sequence
+        }
+
+        String sequence = table + "_SEQ";
+        try (Statement statement = connection.createStatement()) {
+            if (!sequenceExists(connection, sequence)) {
+                long nextId;
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                    rs.next();
+                    nextId = rs.getLong(1);
+                }
+                statement.execute("CREATE SEQUENCE " + sequence + " START WITH " + nextId + " INCREMENT BY " + ID_ALLOCATION_SIZE);
+            }
+            if (isIdentity(connection, table)) {
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+            }
+        }
+    }
+
+    /**
+     * Adds the optimistic locking version column to a table created before the entity was versioned.
+     * Existing rows start at version 0.
+     *
+     * @param connection the open JDBC connection.
+     * @param table the name of the table.
+     * @throws SQLException if a statement fails.
+     */
+    private static void addVersionColumn(Connection connection, String table) throws SQLException {
+        if (!tableExists(connection, table) || columnExists(connection, table, "VERSION")) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ADD COLUMN version INTEGER DEFAULT 0 NOT NULL");
+        }
+    }
+
+    /**
+     * Replaces the status names stored in the Copies table by the one-letter codes of {@link CopyStatus}.
+     *
+     * @param connection the open JDBC connection.
+     * @throws SQLException if a statement fails or a copy has a status that is not known.
+     */
+    private static void compactCopyStatus(Connection connection) throws SQLException {
+        if (!tableExists(connection, "Copies") || columnLength(connection, "Copies", "STATUS") <= 1) {
+            return;
+        }
+
+        StringBuilder codes = new StringBuilder("CASE UPPER(status)");
+        StringBuilder labels = new StringBuilder();
+        for (CopyStatus status : CopyStatus.values()) {
+            String label = status.getLabel().toUpperCase();
+            codes.append(" WHEN '").append(label).append("' THEN '").append(status.getCode()).append("'");
+            labels.append(labels.isEmpty() ? "" : ", ").append("'").append(label).append("'");
+        }
+        codes.append(" END");
+
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT DISTINCT status FROM Copies WHERE UPPER(status) NOT IN (" + labels + ")")) {
+                if (rs.next()) {
+                    throw new SQLException("Copies have a status that is not known: " + rs.getString(1));
+                }
+            }
+            statement.executeUpdate("UPDATE Copies SET status = " + codes);
+            statement.execute("ALTER TABLE Copies ALTER COLUMN status SET DATA TYPE VARCHAR(1)");
+        }
+    }
+
+    static boolean tableExists(Connection connection, String table) throws SQLException {
+        return exists(connection,
+                "SELECT 1 FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ?",
+                table);
+    }
+
+    private static boolean sequenceExists(Connection connection, String sequence) throws SQLException {
+        return exists(connection,
+                "SELECT 1 FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'PUBLIC' AND SEQUENCE_NAME = ?",
+                sequence);
+    }
+
+    private static boolean isIdentity(Connection connection, String table) throws SQLException {
+        return exists(connection,
+                "SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? "
+                        + "AND COLUMN_NAME = 'ID' AND IS_IDENTITY = 'YES'",
+                table);
+    }
+
+    private static boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+            statement.setString(1, table.toUpperCase());
+            statement.setString(2, column.toUpperCase());
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static long columnLength(Connection connection, String table, String column) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT CHARACTER_MAXIMUM_LENGTH FROM INFORMATION_SCHEMA.COLUMNS "
+                        + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+            statement.setString(1, table.toUpperCase());
+            statement.setString(2, column.toUpperCase());
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static boolean exists(Connection connection, String sql, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, name.toUpperCase());
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package Repositories;
+
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The HikariCP connection provider with a {@link SlowQueryLog} in front of it.
+ * <p>
+ * Every connection handed to Hibernate is wrapped so its statements remember their SQL and bind parameters and
+ * time their executions. A statement that takes at least the threshold is logged together with the number of rows
+ * it read or changed and the repository method that ran it. Rows of a query are counted as Hibernate reads them,
+ * so such a statement is logged when its result set is closed. When the log is turned off the connections are
+ * handed out unwrapped.
+ */
+public class SlowQueryConnectionProvider extends HikariCPConnectionProvider {
+    private transient SlowQueryLog log;
+
+    @Override
+    public void configure(Map<String, Object> settings) {
+        super.configure(settings);
+        log = SlowQueryLog.open(settings);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return log == null ? connection : proxy(Connection.class, new ConnectionHandler(connection, log));
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SlowQueryConnectionProvider.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Calls a method on the wrapped object. equals and hashCode are answered by the proxy itself, because
+     * Hibernate keeps its statements and result sets in hash maps and must find the proxies there again.
+     */
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Wraps the statements a connection creates.
+     */
+    private record ConnectionHandler(Connection connection, SlowQueryLog log) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryConnectionProvider.invoke(proxy, connection, method, args);
+            if (result instanceof Statement statement && method.getName().startsWith("p")) {
+                // prepareStatement and prepareCall get the SQL up front, createStatement when it is executed
+                return proxy(method.getReturnType(), new StatementHandler(statement, (String) args[0], log));
+            } else if (result instanceof Statement statement) {
+                return proxy(method.getReturnType(), new StatementHandler(statement, null, log));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Records the bind parameters of a statement, times its executions and logs the slow ones.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final SlowQueryLog log;
+        private String sql;
+        private Object[] parameters = new Object[8];
+        private int parameterCount;
+        private int batchSize;
+        private long pendingNanos = -1;
+        private long pendingRows;
+
+        StatementHandler(Statement statement, String sql, SlowQueryLog log) {
+            this.statement = statement;
+            this.sql = sql;
+            this.log = log;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("setNull") && args[0] instanceof Integer index) {
+                bind(index, null); // the second argument is the SQL type, not the value
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, args[1]);
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(parameters, null);
+                parameterCount = 0;
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.startsWith("execute")) {
+                return execute(proxy, method, args);
+            } else if (name.equals("getResultSet") && pendingNanos >= 0) {
+                return counting((ResultSet) SlowQueryConnectionProvider.invoke(proxy, statement, method, args));
+            } else if (name.equals("close")) {
+                flush();
+            }
+            return SlowQueryConnectionProvider.invoke(proxy, statement, method, args);
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            if (args != null && args.length > 0 && args[0] instanceof String text) {
+                sql = text;
+            }
+            flush();
+            long start = System.nanoTime();
+            Object result = SlowQueryConnectionProvider.invoke(proxy, statement, method, args);
+            long nanos = System.nanoTime() - start;
+            int batch = batchSize;
+            batchSize = 0;
+            if (!log.isSlow(nanos)) {
+                return result;
+            }
+
+            if (result instanceof ResultSet resultSet) {
+                pendingNanos = nanos;
+                return counting(resultSet);
+            }
+            long rows = rows(result);
+            if (result instanceof Boolean isQuery) {
+                if (isQuery) {
+                    pendingNanos = nanos; // the rows are counted when the result set is read
+                    return result;
+                }
+                rows = statement.getUpdateCount();
+            }
+            log.log(batch > 0 ? sql + " (batch of " + batch + ")" : sql, boundParameters(), nanos, rows, RepositoryMetrics.currentMethod());
+            return result;
+        }
+
+        private ResultSet counting(ResultSet resultSet) {
+            return proxy(ResultSet.class, (proxy, method, args) -> {
+                Object result = SlowQueryConnectionProvider.invoke(proxy, resultSet, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    pendingRows++;
+                } else if (method.getName().equals("close")) {
+                    flush();
+                }
+                return result;
+            });
+        }
+
+        /**
+         * Logs the slow query whose rows were being counted, if any.
+         */
+        private void flush() {
+            if (pendingNanos >= 0) {
+                log.log(sql, boundParameters(), pendingNanos, pendingRows, RepositoryMetrics.currentMethod());
+                pendingNanos = -1;
+                pendingRows = 0;
+            }
+        }
+
+        private void bind(int index, Object value) {
+            if (index >= parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index + 1, parameters.length * 2));
+            }
+            parameters[index] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+
+        private Object[] boundParameters() {
+            return Arrays.copyOf(parameters, parameterCount + 1);
+        }
+
+        private static long rows(Object result) {
+            if (result instanceof Number count) {
+                return count.longValue();
+            }
+            if (result instanceof int[] counts) {
+                return Arrays.stream(counts).filter(count -> count > 0).sum();
+            }
+            if (result instanceof long[] counts) {
+                return Arrays.stream(counts).filter(count -> count > 0).sum();
+            }
+            return -1;
+        }
+    }
+}
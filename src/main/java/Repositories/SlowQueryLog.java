@@ -0,0 +1,207 @@
+package Repositories;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Writes the SQL statements that took longer than a threshold to a rolling log file.
+ * <p>
+ * Each entry holds the execution time, the number of rows read or changed, the repository method that ran the
+ * statement, the SQL and its bind parameters. Statements are handed to a background thread that writes them, so
+ * a slow statement costs the caller no more than putting it in a queue; if the queue is full the entry is dropped
+ * and counted instead of blocking. The file is a java.util.logging {@link FileHandler} that starts the next file
+ * when one is full and keeps a fixed number of them.
+ * <p>
+ * The log is configured through the persistence settings below, which {@link PersistenceManager} fills from the
+ * db.slowQuery.* entries in config.properties.
+ */
+final class SlowQueryLog implements AutoCloseable {
+    /**
+     * The setting with the threshold in milliseconds. 0 logs every statement, a negative value turns the log off.
+     */
+    static final String THRESHOLD_SETTING = "lms.slow_query.threshold_ms";
+
+    /**
+     * The setting with the file name pattern, in the format of {@link FileHandler} (%g is the file number).
+     */
+    static final String FILE_SETTING = "lms.slow_query.file";
+
+    /**
+     * The setting with the size in bytes at which the next file is started.
+     */
+    static final String MAX_FILE_BYTES_SETTING = "lms.slow_query.max_file_bytes";
+
+    /**
+     * The setting with the number of files kept.
+     */
+    static final String MAX_FILES_SETTING = "lms.slow_query.max_files";
+
+    private static final int QUEUE_SIZE = 10_000;
+    private static final int MAX_VALUE_LENGTH = 100;
+    private static final String STOP = "";
+
+    private final long thresholdNanos;
+    private final FileHandler handler;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+
+    private SlowQueryLog(long thresholdNanos, FileHandler handler) {
+        this.thresholdNanos = thresholdNanos;
+        this.handler = handler;
+        this.writer = new Thread(this::write, "lms-slow-query-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens the log described by the given persistence settings.
+     *
+     * @param settings the persistence settings.
+     * @return the log, or null if it is turned off.
+     * @throws UncheckedIOException if the log file cannot be opened.
+     */
+    static SlowQueryLog open(Map<String, Object> settings) {
+        long thresholdMillis = setting(settings, THRESHOLD_SETTING, 200);
+        if (thresholdMillis < 0) {
+            return null;
+        }
+        String pattern = String.valueOf(settings.getOrDefault(FILE_SETTING, "./logs/slow-queries.%g.log"));
+        try {
+            Path directory = Path.of(pattern).toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            FileHandler handler = new FileHandler(pattern,
+                    (int) setting(settings, MAX_FILE_BYTES_SETTING, 10 * 1024 * 1024),
+                    (int) Math.max(1, setting(settings, MAX_FILES_SETTING, 5)),
+                    true);
+            handler.setFormatter(new Formatter() {
+                @Override
+                public String format(LogRecord record) {
+                    return record.getMessage() + System.lineSeparator();
+                }
+            });
+            return new SlowQueryLog(TimeUnit.MILLISECONDS.toNanos(thresholdMillis), handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the slow query log " + pattern, e);
+        }
+    }
+
+    /**
+     * Checks whether a statement that took the given time is slow enough to be logged.
+     *
+     * @param nanos the execution time in nanoseconds.
+     * @return true if the statement is logged.
+     */
+    boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    /**
+     * Queues a slow statement for writing.
+     *
+     * @param sql the SQL of the statement.
+     * @param parameters the bind parameters by position, null entries for positions that were not set.
+     * @param nanos the execution time in nanoseconds.
+     * @param rows the number of rows read or changed, or -1 if unknown.
+     * @param caller the repository method that ran the statement, or null if it was not run by one.
+     */
+    void log(String sql, Object[] parameters, long nanos, long rows, String caller) {
+        StringBuilder entry = new StringBuilder()
+                .append(LocalDateTime.now())
+                .append(String.format(" %.1f ms", nanos / 1_000_000.0))
+                .append(" rows=").append(rows < 0 ? "?" : rows)
+                .append(' ').append(caller == null ? "-" : caller)
+                .append(": ").append(sql);
+        if (parameters != null && parameters.length > 1) {
+            entry.append(" [");
+            for (int i = 1; i < parameters.length; i++) {
+                entry.append(i > 1 ? ", " : "").append(i).append('=').append(format(parameters[i]));
+            }
+            entry.append(']');
+        }
+        if (!queue.offer(entry.toString())) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes the queued statements and closes the file.
+     */
+    @Override
+    public void close() {
+        try {
+            queue.put(STOP);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        handler.close();
+    }
+
+    /**
+     * Takes entries from the queue and writes them until the log is closed.
+     * The file is flushed whenever the queue runs empty.
+     */
+    private void write() {
+        try {
+            while (true) {
+                String entry = queue.take();
+                if (entry == STOP) {
+                    break;
+                }
+                handler.publish(new LogRecord(Level.INFO, entry));
+                long lost = dropped.getAndSet(0);
+                if (lost > 0) {
+                    handler.publish(new LogRecord(Level.WARNING, lost + " slow statements were not logged because the queue was full"));
+                }
+                if (queue.isEmpty()) {
+                    handler.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        handler.flush();
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value.getClass().isArray()) {
+            return "<" + Array.getLength(value) + " items>";
+        }
+        String text = value.toString();
+        if (text.length() > MAX_VALUE_LENGTH) {
+            text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+        }
+        return value instanceof CharSequence ? "'" + text + "'" : text;
+    }
+
+    private static long setting(Map<String, Object> settings, String key, long defaultValue) {
+        Object value = settings.get(key);
+        if (value == null || value.toString().isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Setting " + key + " must be a number but was: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package Repositories;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Records how long each phase of the application start takes, so boot latency can be compared across releases.
+ * <p>
+ * Each phase is recorded once, the first time it completes, with its own duration and the time since the JVM
+ * started. Later occurrences, such as a second boot of the persistence unit, are ignored. Every phase is logged
+ * at FINE level when it is recorded, and {@link #logSummary()} logs the whole breakdown on one line at INFO level.
+ */
+public final class StartupProfile {
+    private static final Logger LOGGER = Logger.getLogger(StartupProfile.class.getName());
+
+    /**
+     * The time from the start of the JVM until the main method runs.
+     */
+    public static final String JVM = "JVM start";
+    /**
+     * Checking the schema version and applying pending migrations.
+     */
+    public static final String SCHEMA_CHECK = "schema check";
+    /**
+     * Building the EntityManagerFactory.
+     */
+    public static final String HIBERNATE_BOOT = "Hibernate boot";
+    /**
+     * The first query sent to the database.
+     */
+    public static final String FIRST_QUERY = "first query";
+    /**
+     * The time from the main method until the first window is painted.
+     */
+    public static final String FIRST_PAINT = "first paint";
+    /**
+     * The time from opening the first dashboard until it is painted.
+     */
+    public static final String DASHBOARD_PAINT = "dashboard paint";
+
+    /**
+     * One recorded phase.
+     *
+     * @param name the name of the phase.
+     * @param duration how long the phase took.
+     * @param sinceJvmStart the time from the start of the JVM until the phase completed.
+     */
+    public record Phase(String name, Duration duration, Duration sinceJvmStart) {
+    }
+
+    private static final Map<String, Phase> phases = new LinkedHashMap<>();
+
+    private StartupProfile() {
+    }
+
+    /**
+     * Records the time from the start of the JVM until now as the {@link #JVM} phase.
+     * Call this first thing in a main method.
+     */
+    public static void recordJvmStart() {
+        Duration uptime = uptime();
+        record(new Phase(JVM, uptime, uptime));
+    }
+
+    /**
+     * Records a phase that started at the given time and completes now, unless it was recorded before.
+     *
+     * @param name the name of the phase.
+     * @param startNanos the value of {@link System#nanoTime()} when the phase started.
+     * @return true if the phase was recorded, false if it had been recorded before.
+     */
+    public static boolean record(String name, long startNanos) {
+        return record(new Phase(name, Duration.ofNanos(System.nanoTime() - startNanos), uptime()));
+    }
+
+    /**
+     * Gets the phases recorded so far.
+     *
+     * @return the phases in the order they completed.
+     */
+    public static synchronized List<Phase> getPhases() {
+        return new ArrayList<>(phases.values());
+    }
+
+    /**
+     * Logs all phases recorded so far on one line.
+     */
+    public static void logSummary() {
+        StringBuilder summary = new StringBuilder("Startup: ready after ").append(uptime().toMillis()).append(" ms (");
+        List<Phase> recorded = getPhases();
+        for (int i = 0; i < recorded.size(); i++) {
+            Phase phase = recorded.get(i);
+            summary.append(i == 0 ? "" : ", ").append(phase.name()).append(' ').append(phase.duration().toMillis()).append(" ms");
+        }
+        LOGGER.info(summary.append(')').toString());
+    }
+
+    private static synchronized boolean record(Phase phase) {
+        if (phases.putIfAbsent(phase.name(), phase) != null) {
+            return false;
+        }
+        LOGGER.fine(() -> "Startup: " + phase.name() + " took " + phase.duration().toMillis()
+                + " ms, done " + phase.sinceJvmStart().toMillis() + " ms after JVM start");
+        return true;
+    }
+
+    private static Duration uptime() {
+        return Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+}
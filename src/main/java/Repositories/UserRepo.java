@@ -2,6 +2,7 @@ package Repositories;
 
 import Entities.User;
 import jakarta.persistence.*;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
 
@@ -9,7 +10,7 @@ import java.util.List;
  * Handles database operations for User entities.
  */
 public class UserRepo {
-    private EntityManagerFactory emf = Persistence.createEntityManagerFactory("LMS-PU");
+    private final RepositoryMetrics metrics = RepositoryMetrics.forRepository(UserRepo.class);
 
     /**
      * Adds a new user to the database.
@@ -17,11 +18,20 @@ public class UserRepo {
      * @param user the user to add.
      */
     public void createUser(User user) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        em.persist(user);
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("createUser", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                em.persist(user);
+                em.flush();
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -31,22 +41,78 @@ public class UserRepo {
      * @return the found user, or null if not found.
      */
     public User findUserById(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        User user = em.find(User.class, id);
-        em.close();
-        return user;
+        return metrics.call("findUserById", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.find(User.class, id);
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
      * Retrieves all users from the database.
+     * Loads the whole table; on large tables read it in slices with {@link #getUsersAfter} instead.
      *
      * @return a list of all users.
      */
     public List<User> getAllUsers() {
-        EntityManager em = emf.createEntityManager();
-        List<User> users = em.createQuery("SELECT u FROM User u", User.class).getResultList();
-        em.close();
-        return users;
+        return metrics.call("getAllUsers", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                return em.createQuery("SELECT u FROM User u", User.class)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .getResultList();
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * Gets the next slice of users after the given one, ordered by ID.
+     * Pass the ID of the last user of a slice to get the following one.
+     *
+     * @param afterId the ID of the last user already read, or null to start from the first one.
+     * @param limit the maximum number of users to return.
+     * @return up to limit users with a greater ID, ordered by ID.
+     */
+    public List<User> getUsersAfter(Integer afterId, int limit) {
+        return metrics.call("getUsersAfter", () -> Paging.after(emf(), User.class, afterId, limit));
+    }
+
+    /**
+     * Gets one page of users, ordered by ID.
+     *
+     * @param offset the number of users to skip.
+     * @param limit the maximum number of users to return.
+     * @return up to limit users starting at the given position.
+     */
+    public List<User> getUsersPage(int offset, int limit) {
+        return metrics.call("getUsersPage", () -> Paging.page(emf(), User.class, offset, limit));
+    }
+
+    /**
+     * Gets one page of user rows, ordered by ID. The users are not loaded as entities.
+     *
+     * @param offset the number of users to skip.
+     * @param limit the maximum number of rows to return.
+     * @return up to limit user rows starting at the given position.
+     */
+    public List<UserRow> getUserRowsPage(int offset, int limit) {
+        return metrics.call("getUserRowsPage", () -> Paging.page(emf(),
+                "SELECT new Repositories.UserRow(u.id, u.name, u.email, u.phoneNumber, u.address) FROM User u ORDER BY u.id",
+                UserRow.class, offset, limit));
+    }
+
+    /**
+     * Counts all users in the database.
+     *
+     * @return the number of users.
+     */
+    public long countUsers() {
+        return metrics.call("countUsers", () -> Paging.count(emf(), User.class));
     }
 
     /**
@@ -55,11 +121,19 @@ public class UserRepo {
      * @param user the user with updated details.
      */
     public void updateUser(User user) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
-        em.merge(user);
-        em.getTransaction().commit();
-        em.close();
+        metrics.run("updateUser", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
+            try {
+                em.merge(user);
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -70,24 +144,31 @@ public class UserRepo {
      * @throws PersistenceException if the user has borrowings or is a librarian.
      */
     public void deleteUser(Integer id) {
-        EntityManager em = emf.createEntityManager();
-        em.getTransaction().begin();
+        metrics.run("deleteUser", () -> {
+            EntityManager em = emf().createEntityManager();
+            em.getTransaction().begin();
 
-        User user = em.find(User.class, id);
-        if (user != null) {
-            boolean hasBorrowings = !user.getBorrowings().isEmpty();
-            boolean isLibrarian = user.getLibrarian() != null;
+            try {
+                User user = em.find(User.class, id);
+                if (user != null) {
+                    boolean hasBorrowings = !user.getBorrowings().isEmpty();
+                    boolean isLibrarian = user.getLibrarian() != null;
 
-            if (hasBorrowings || isLibrarian) {
-                em.close();
-                throw new PersistenceException("Cannot delete user associated with borrowings or librarian.");
-            }
+                    if (hasBorrowings || isLibrarian) {
+                        throw new PersistenceException("Cannot delete user associated with borrowings or librarian.");
+                    }
 
-            em.remove(user);
-        }
+                    em.remove(user);
+                }
 
-        em.getTransaction().commit();
-        em.close();
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                em.getTransaction().rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
@@ -97,15 +178,21 @@ public class UserRepo {
      * @return true if the user is a librarian, false otherwise.
      */
     public boolean isLibrarian(int userId) {
-        EntityManager em = emf.createEntityManager();
-        try {
-            Long count = em.createQuery(
-                            "SELECT COUNT(l) FROM Librarian l WHERE l.user.id = :userId", Long.class)
-                    .setParameter("userId", userId)
-                    .getSingleResult();
-            return count > 0;
-        } finally {
-            em.close();
-        }
+        return metrics.call("isLibrarian", () -> {
+            EntityManager em = emf().createEntityManager();
+            try {
+                Long count = em.createQuery(
+                                "SELECT COUNT(l) FROM Librarian l WHERE l.user.id = :userId", Long.class)
+                        .setParameter("userId", userId)
+                        .getSingleResult();
+                return count > 0;
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    private EntityManagerFactory emf() {
+        return PersistenceManager.getEntityManagerFactory();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package Repositories;
+
+/**
+ * A read-only row of a user listing, read straight from the database without loading the User entity.
+ *
+ * @param id the ID of the user.
+ * @param name the name of the user.
+ * @param email the email address of the user.
+ * @param phoneNumber the phone number of the user.
+ * @param address the address of the user.
+ */
+public record UserRow(Integer id, String name, String email, String phoneNumber, String address) {
+}
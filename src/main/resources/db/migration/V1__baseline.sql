@@ -0,0 +1,78 @@
+-- The current schema for fresh databases; SchemaUpgrade brings databases created by hbm2ddl to it.
+-- Every statement tolerates existing objects, so the script also completes such a database after the upgrade.
+
+CREATE SEQUENCE IF NOT EXISTS Books_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS Borrowings_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS Copies_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS Librarians_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS Publishers_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS Users_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS Publishers (
+    id INTEGER NOT NULL,
+    address VARCHAR(255),
+    name VARCHAR(255) NOT NULL,
+    phoneNumber VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS Books (
+    id INTEGER NOT NULL,
+    publicationYear INTEGER NOT NULL,
+    publisher_id INTEGER NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    isbn VARCHAR(255) NOT NULL UNIQUE,
+    publisher VARCHAR(255) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS Copies (
+    book_id INTEGER NOT NULL,
+    copyNumber INTEGER NOT NULL,
+    id INTEGER NOT NULL,
+    status VARCHAR(1) NOT NULL,
+    version INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (book_id, copyNumber)
+);
+
+CREATE TABLE IF NOT EXISTS Users (
+    id INTEGER NOT NULL,
+    address VARCHAR(255),
+    email VARCHAR(255) NOT NULL UNIQUE,
+    name VARCHAR(255) NOT NULL,
+    phoneNumber VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS Borrowings (
+    borrowDate DATE NOT NULL,
+    copy_id INTEGER NOT NULL,
+    id INTEGER NOT NULL,
+    returnDate DATE,
+    user_id INTEGER NOT NULL,
+    version INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS Librarians (
+    employmentDate DATE NOT NULL,
+    id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL UNIQUE,
+    position VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_books_title ON Books (title);
+CREATE INDEX IF NOT EXISTS idx_borrowings_copy_return ON Borrowings (copy_id, returnDate);
+CREATE INDEX IF NOT EXISTS idx_borrowings_user ON Borrowings (user_id);
+CREATE INDEX IF NOT EXISTS idx_copies_status ON Copies (status);
+CREATE INDEX IF NOT EXISTS idx_librarians_user ON Librarians (user_id);
+CREATE INDEX IF NOT EXISTS idx_publishers_name ON Publishers (name);
+
+ALTER TABLE Books ADD CONSTRAINT IF NOT EXISTS fk_publisher_book FOREIGN KEY (publisher_id) REFERENCES Publishers;
+ALTER TABLE Copies ADD CONSTRAINT IF NOT EXISTS fk_book_copy FOREIGN KEY (book_id) REFERENCES Books;
+ALTER TABLE Borrowings ADD CONSTRAINT IF NOT EXISTS fk_copy_borrowing FOREIGN KEY (copy_id) REFERENCES Copies;
+ALTER TABLE Borrowings ADD CONSTRAINT IF NOT EXISTS fk_user_borrowing FOREIGN KEY (user_id) REFERENCES Users;
+ALTER TABLE Librarians ADD CONSTRAINT IF NOT EXISTS fk_user_librarian FOREIGN KEY (user_id) REFERENCES Users;
@@ -0,0 +1,4 @@
+-- The UNIQUE constraint on Librarians.user_id already has an index, so idx_librarians_user only
+-- doubled the work of every insert and update of a librarian.
+
+DROP INDEX IF EXISTS idx_librarians_user;
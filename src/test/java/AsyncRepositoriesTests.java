@@ -0,0 +1,191 @@
+import Entities.*;
+import Repositories.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the asynchronous repository facade.
+ * Covers concurrent queries, the concurrency limit, cancellation and the borrow and return flows.
+ */
+class AsyncRepositoriesTests {
+
+    BookRepo bookRepo = new BookRepo();
+    CopyRepo copyRepo = new CopyRepo();
+    PublisherRepo publisherRepo = new PublisherRepo();
+    UserRepo userRepo = new UserRepo();
+
+    AsyncRepositories async = new AsyncRepositories(2);
+
+    /**
+     * Clears the database before each test to ensure a clean state.
+     */
+    @BeforeEach
+    void clearDatabase() {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Borrowing").executeUpdate();
+        em.createQuery("DELETE FROM Librarian").executeUpdate();
+        em.createQuery("DELETE FROM Copy").executeUpdate();
+        em.createQuery("DELETE FROM Book").executeUpdate();
+        em.createQuery("DELETE FROM Publisher").executeUpdate();
+        em.createQuery("DELETE FROM User").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    /**
+     * Stops the facade's background threads.
+     */
+    @AfterEach
+    void closeAsync() {
+        async.close();
+    }
+
+    /**
+     * Tests that several queries started together all complete with their results.
+     */
+    @Test
+    void testFanOutQueries() throws Exception {
+        Book book = createBookWithCopy();
+        User user = createUser();
+
+        CompletableFuture<Long> books = async.countBooksAsync();
+        CompletableFuture<Long> users = async.countUsersAsync();
+        CompletableFuture<List<AvailableCopyRow>> available = async.getAvailableCopyRowsAsync();
+        CompletableFuture<Book> found = async.findBookAsync(book.getId());
+        CompletableFuture.allOf(books, users, available, found).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, books.get());
+        assertEquals(1, users.get());
+        assertEquals(1, available.get().size());
+        assertEquals("1984", found.get().getTitle());
+        assertEquals(user.getId(), async.findUserAsync(user.getId()).get().getId());
+    }
+
+    /**
+     * Tests that no more calls than allowed run at the same time.
+     */
+    @Test
+    void testConcurrencyIsBounded() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Long>> calls = new java.util.ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(async.supply(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                    return bookRepo.countBooks();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture<?>[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, maxRunning.get(), "At most two calls should use the database at once.");
+    }
+
+    /**
+     * Tests that a cancelled call waiting for a free slot never runs.
+     */
+    @Test
+    void testCancelWaitingCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            async.supply(() -> {
+                started.countDown();
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<Boolean> waiting = async.supply(() -> ran.getAndSet(true));
+        assertTrue(waiting.cancel(true));
+        release.countDown();
+
+        assertTrue(waiting.isCancelled());
+        assertEquals(3L, async.supply(() -> 3L).get(5, TimeUnit.SECONDS), "The slots should be free again.");
+        assertFalse(ran.get(), "A cancelled call should not run.");
+    }
+
+    /**
+     * Tests borrowing and returning a copy, and that a second borrow of the same copy fails.
+     */
+    @Test
+    void testBorrowAndReturn() throws Exception {
+        createBookWithCopy();
+        User user = createUser();
+        int copyId = copyRepo.getAvailableCopyRows().get(0).copyId();
+
+        async.borrowAsync(user.getId(), copyId).get(10, TimeUnit.SECONDS);
+        assertTrue(copyRepo.getAvailableCopyRows().isEmpty());
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> async.borrowAsync(user.getId(), copyId).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+
+        int borrowingId = new BorrowingRepo().getBorrowingRowsByUser(user.getId()).get(0).id();
+        async.returnAsync(borrowingId).get(10, TimeUnit.SECONDS);
+        assertEquals(1, copyRepo.getAvailableCopyRows().size());
+        assertNotNull(new BorrowingRepo().getBorrowingsByUser(user.getId()).get(0).getReturnDate());
+    }
+
+    /**
+     * Tests that calls made after closing fail instead of hanging.
+     */
+    @Test
+    void testClosedFacadeRejectsCalls() {
+        async.close();
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> async.countBooksAsync().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+    }
+
+    private Book createBookWithCopy() {
+        Publisher publisher = new Publisher();
+        publisher.setName("Sample Publisher");
+        publisherRepo.createPublisher(publisher);
+
+        Book book = new Book();
+        book.setTitle("1984");
+        book.setAuthor("George Orwell");
+        book.setPublisherEntity(publisher);
+        book.setPublicationYear(1949);
+        book.setIsbn("9780451524935");
+        bookRepo.createBook(book);
+
+        Copy copy = new Copy();
+        copy.setBook(book);
+        copy.setCopyNumber(1);
+        copy.setStatus(CopyStatus.AVAILABLE);
+        copyRepo.createCopy(copy);
+        return book;
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("john.doe@example.com");
+        userRepo.createUser(user);
+        return user;
+    }
+}
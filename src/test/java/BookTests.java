@@ -1,11 +1,13 @@
 import Entities.Book;
 import Entities.Copy;
+import Entities.CopyStatus;
 import Entities.Publisher;
 import Repositories.BookRepo;
+import Repositories.BookRow;
 import Repositories.CopyRepo;
+import Repositories.PersistenceManager;
 import Repositories.PublisherRepo;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Persistence;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -31,7 +33,7 @@ class BookTests {
      */
     @BeforeEach
     void clearDatabase() {
-        EntityManager em = Persistence.createEntityManagerFactory("LMS-PU").createEntityManager();
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
         em.getTransaction().begin();
 
         em.createQuery("DELETE FROM Borrowing").executeUpdate();
@@ -165,7 +167,7 @@ class BookTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(1);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         PersistenceException exception = assertThrows(PersistenceException.class, () -> {
@@ -217,4 +219,44 @@ class BookTests {
         Exception exception = assertThrows(PersistenceException.class, () -> bookRepo.createBook(book));
         assertNotNull(exception, "Creating a book with null mandatory fields should throw an exception.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that the books-with-copies query lists each book with copies once and skips books without copies.
+     */
+    @Test
+    void testGetBooksWithCopies() {
+        Publisher publisher = new Publisher();
+        publisher.setName("Sample Publisher");
+        publisherRepo.createPublisher(publisher);
+
+        Book withCopies = new Book();
+        withCopies.setTitle("1984");
+        withCopies.setAuthor("George Orwell");
+        withCopies.setPublisherEntity(publisher);
+        withCopies.setPublicationYear(1949);
+        withCopies.setIsbn("9780451524935");
+        bookRepo.createBook(withCopies);
+
+        Book withoutCopies = new Book();
+        withoutCopies.setTitle("Book 2");
+        withoutCopies.setAuthor("Author 2");
+        withoutCopies.setPublisherEntity(publisher);
+        withoutCopies.setPublicationYear(2020);
+        withoutCopies.setIsbn("9780061120084");
+        bookRepo.createBook(withoutCopies);
+
+        for (int i = 1; i <= 3; i++) {
+            Copy copy = new Copy();
+            copy.setBook(withCopies);
+            copy.setCopyNumber(i);
+            copy.setStatus(CopyStatus.AVAILABLE);
+            copyRepo.createCopy(copy);
+        }
+
+        List<BookRow> books = bookRepo.getBookRowsWithCopies();
+        assertEquals(1, books.size(), "Each book with copies should be listed once.");
+        assertEquals("1984", books.get(0).title());
+        assertEquals("Sample Publisher", books.get(0).publisherName(),
+                "The publisher name should be read with the book.");
+    }
+}
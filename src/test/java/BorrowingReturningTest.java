@@ -1,7 +1,6 @@
 import Entities.*;
 import Repositories.*;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Persistence;
 import org.junit.jupiter.api.*;
 
 import java.util.Date;
@@ -40,7 +39,7 @@ public class BorrowingReturningTest {
      */
     @BeforeEach
     void clearDatabase() {
-        EntityManager em = Persistence.createEntityManagerFactory("LMS-PU").createEntityManager();
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
         em.getTransaction().begin();
         em.createQuery("DELETE FROM Borrowing").executeUpdate();
         em.createQuery("DELETE FROM Librarian").executeUpdate();
@@ -86,12 +85,12 @@ public class BorrowingReturningTest {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(1);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         assertNotNull(user, "User should exist for borrowing.");
         assertNotNull(copy, "Copy should exist for borrowing.");
-        assertEquals("Available", copy.getStatus(), "Copy should be available for borrowing.");
+        assertEquals(CopyStatus.AVAILABLE, copy.getStatus(), "Copy should be available for borrowing.");
 
         Borrowing borrowing = new Borrowing();
         borrowing.setUser(user);
@@ -102,7 +101,7 @@ public class BorrowingReturningTest {
 
         Copy updatedCopy = copyRepo.findCopyById(copy.getId());
         assertNotNull(updatedCopy, "Updated copy should exist.");
-        assertEquals("Borrowed", updatedCopy.getStatus(), "Copy status should be 'Borrowed' after borrowing.");
+        assertEquals(CopyStatus.BORROWED, updatedCopy.getStatus(), "Copy status should be 'Borrowed' after borrowing.");
 
         Borrowing fetchedBorrowing = borrowingRepo.getAllBorrowings()
                 .stream()
@@ -150,12 +149,12 @@ public class BorrowingReturningTest {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(1);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         assertNotNull(user, "User should exist for borrowing.");
         assertNotNull(copy, "Copy should exist for borrowing.");
-        assertEquals("Available", copy.getStatus(), "Copy should be available for borrowing.");
+        assertEquals(CopyStatus.AVAILABLE, copy.getStatus(), "Copy should be available for borrowing.");
 
         Borrowing borrowing = new Borrowing();
         borrowing.setUser(user);
@@ -168,12 +167,12 @@ public class BorrowingReturningTest {
         borrowingRepo.updateBorrowing(borrowing);
 
         Copy returnedCopy = copyRepo.findCopyById(copy.getId());
-        returnedCopy.setStatus("Available");
+        returnedCopy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.updateCopy(returnedCopy);
 
         Borrowing updatedBorrowing = borrowingRepo.findBorrowingById(borrowing.getId());
         assertNotNull(updatedBorrowing.getReturnDate(), "Return date should be set.");
-        assertEquals("Available", returnedCopy.getStatus(), "Copy status should be 'Available' after returning.");
+        assertEquals(CopyStatus.AVAILABLE, returnedCopy.getStatus(), "Copy status should be 'Available' after returning.");
     }
 
     /**
@@ -211,11 +210,11 @@ public class BorrowingReturningTest {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(1);
-        copy.setStatus("Borrowed");
+        copy.setStatus(CopyStatus.BORROWED);
         copyRepo.createCopy(copy);
 
         assertNotNull(copy.getId(), "Copy should have been persisted.");
-        assertEquals("Borrowed", copy.getStatus(), "Copy should be borrowed for this test.");
+        assertEquals(CopyStatus.BORROWED, copy.getStatus(), "Copy should be borrowed for this test.");
 
         Borrowing borrowing = new Borrowing();
         borrowing.setUser(user);
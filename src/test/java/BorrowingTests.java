@@ -1,11 +1,13 @@
 import Entities.*;
 import Repositories.*;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Persistence;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,7 +30,7 @@ public class BorrowingTests {
      */
     @BeforeEach
     void clearDatabase() {
-        EntityManager em = Persistence.createEntityManagerFactory("LMS-PU").createEntityManager();
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
         em.getTransaction().begin();
 
         em.createQuery("DELETE FROM Borrowing").executeUpdate();
@@ -77,7 +79,7 @@ public class BorrowingTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(1);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         Borrowing borrowing = new Borrowing();
@@ -123,7 +125,7 @@ public class BorrowingTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(2);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         Borrowing borrowing = new Borrowing();
@@ -170,7 +172,7 @@ public class BorrowingTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(3);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         Borrowing borrowing = new Borrowing();
@@ -214,7 +216,7 @@ public class BorrowingTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(3);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         Borrowing borrowing = new Borrowing();
@@ -258,7 +260,7 @@ public class BorrowingTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(1);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         Borrowing borrowing = new Borrowing();
@@ -284,4 +286,117 @@ public class BorrowingTests {
         assertNotNull(updatedBorrowing.getReturnDate(), "Return date should be set.");
         assertTrue(updatedBorrowing.getReturnDate().after(updatedBorrowing.getBorrowDate()), "Return date should be after borrow date.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the fast borrow and return operations.
+     * Verifies that a copy can only be lent while available and only returned while borrowed.
+     */
+    @Test
+    void testBorrowAndReturnCopy() {
+        User user = createUser("John Doe", "john.doe@example.com");
+        Copy copy = createCopy();
+
+        assertTrue(borrowingRepo.borrowCopy(user.getId(), copy.getId()), "An available copy should be lent.");
+        assertFalse(borrowingRepo.borrowCopy(user.getId(), copy.getId()), "A borrowed copy should not be lent again.");
+        assertEquals(CopyStatus.BORROWED, copyRepo.findCopyById(copy.getId()).getStatus());
+        assertEquals(1, borrowingRepo.countBorrowings());
+
+        int borrowingId = borrowingRepo.getBorrowingRowsByUser(user.getId()).get(0).id();
+        assertTrue(borrowingRepo.returnBorrowing(borrowingId), "A borrowed copy should be returned.");
+        assertFalse(borrowingRepo.returnBorrowing(borrowingId), "A returned copy should not be returned again.");
+        assertEquals(CopyStatus.AVAILABLE, copyRepo.findCopyById(copy.getId()).getStatus());
+        assertNotNull(borrowingRepo.getBorrowingsByUser(user.getId()).get(0).getReturnDate());
+    }
+
+    /**
+     * Tests returning a copy by its ID.
+     * Verifies that of two borrowed copies of the same book only the given one is returned.
+     */
+    @Test
+    void testReturnCopyById() {
+        User user = createUser("John Doe", "john.doe@example.com");
+        Copy first = createCopy();
+        Copy second = new Copy();
+        second.setBook(first.getBook());
+        second.setCopyNumber(2);
+        second.setStatus(CopyStatus.AVAILABLE);
+        copyRepo.createCopy(second);
+        assertTrue(borrowingRepo.borrowCopy(user.getId(), first.getId()));
+        assertTrue(borrowingRepo.borrowCopy(user.getId(), second.getId()));
+
+        assertTrue(borrowingRepo.returnCopyById(second.getId()), "A borrowed copy should be returned.");
+        assertFalse(borrowingRepo.returnCopyById(second.getId()), "A returned copy should not be returned again.");
+        assertEquals(CopyStatus.AVAILABLE, copyRepo.findCopyById(second.getId()).getStatus());
+        assertEquals(CopyStatus.BORROWED, copyRepo.findCopyById(first.getId()).getStatus(),
+                "The other copy of the book should still be borrowed.");
+    }
+
+    /**
+     * Tests that of several users borrowing the same copy at the same time with the fast operation,
+     * exactly one gets it.
+     */
+    @Test
+    void testConcurrentBorrowCopy() throws Exception {
+        Copy copy = createCopy();
+        int borrowers = 8;
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < borrowers; i++) {
+            users.add(createUser("User " + i, "user" + i + "@example.com"));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(borrowers);
+        int succeeded = 0;
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (User user : users) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return borrowingRepo.borrowCopy(user.getId(), copy.getId());
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, succeeded, "Exactly one borrowing should succeed.");
+        assertEquals(1, borrowingRepo.countBorrowings());
+    }
+
+    private User createUser(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPhoneNumber("123456789");
+        user.setAddress("123 Elm Street");
+        userRepo.createUser(user);
+        return user;
+    }
+
+    private Copy createCopy() {
+        Publisher publisher = new Publisher();
+        publisher.setName("Sample Publisher");
+        publisherRepo.createPublisher(publisher);
+
+        Book book = new Book();
+        book.setTitle("1984");
+        book.setAuthor("George Orwell");
+        book.setPublisherEntity(publisher);
+        book.setPublicationYear(1949);
+        book.setIsbn("9780451524935");
+        bookRepo.createBook(book);
+
+        Copy copy = new Copy();
+        copy.setBook(book);
+        copy.setCopyNumber(1);
+        copy.setStatus(CopyStatus.AVAILABLE);
+        copyRepo.createCopy(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,174 @@
+import Entities.Book;
+import Entities.Copy;
+import Entities.CopyStatus;
+import Entities.Publisher;
+import Repositories.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the bulk import methods of the book and copy repositories.
+ * Uses a small chunk size so every import spans several transactions.
+ */
+class BulkImportTests {
+
+    BookRepo bookRepo;
+    CopyRepo copyRepo;
+    PublisherRepo publisherRepo;
+
+    /**
+     * Clears the database and creates the repositories with a chunk size of 100 rows.
+     */
+    @BeforeEach
+    void clearDatabase() {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Borrowing").executeUpdate();
+        em.createQuery("DELETE FROM Librarian").executeUpdate();
+        em.createQuery("DELETE FROM Copy").executeUpdate();
+        em.createQuery("DELETE FROM Book").executeUpdate();
+        em.createQuery("DELETE FROM Publisher").executeUpdate();
+        em.createQuery("DELETE FROM User").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+
+        System.setProperty("db.import.chunkSize", "100");
+        bookRepo = new BookRepo();
+        copyRepo = new CopyRepo();
+        publisherRepo = new PublisherRepo();
+    }
+
+    /**
+     * Restores the configured chunk size.
+     */
+    @AfterEach
+    void restoreChunkSize() {
+        System.clearProperty("db.import.chunkSize");
+    }
+
+    /**
+     * Tests that importing books with copies writes every row and reports the chunks used.
+     */
+    @Test
+    void testImportBooksWithCopies() {
+        Publisher publisher = createPublisher();
+
+        ImportReport report = bookRepo.importBooks(IntStream.range(0, 250).mapToObj(i -> {
+            Book book = newBook(publisher, i);
+            List<Copy> copies = new ArrayList<>();
+            for (int n = 1; n <= 2; n++) {
+                Copy copy = new Copy();
+                copy.setBook(book);
+                copy.setCopyNumber(n);
+                copy.setStatus(CopyStatus.AVAILABLE);
+                copies.add(copy);
+            }
+            book.setCopies(copies);
+            return book;
+        }));
+
+        assertEquals(250, report.imported());
+        assertEquals(3, report.chunks(), "250 books should be committed in chunks of 100.");
+        assertEquals(250, bookRepo.getAllBooks().size());
+        assertEquals(500, copyRepo.getAllCopies().size(), "The copies should be saved together with their books.");
+    }
+
+    /**
+     * Tests that creating copies in bulk numbers them as given.
+     */
+    @Test
+    void testCreateCopies() {
+        Book book = newBook(createPublisher(), 0);
+        bookRepo.createBook(book);
+
+        ImportReport report = copyRepo.createCopies(IntStream.rangeClosed(1, 120).mapToObj(i -> {
+            Copy copy = new Copy();
+            copy.setBook(book);
+            copy.setCopyNumber(i);
+            copy.setStatus(CopyStatus.AVAILABLE);
+            return copy;
+        }));
+
+        assertEquals(120, report.imported());
+        assertEquals(120, copyRepo.getAvailableCopies().size());
+        assertNotNull(copyRepo.findCopyByNumberWithBorrowings(120, book.getId()));
+    }
+
+    /**
+     * Tests that a failing chunk is rolled back while the chunks before it stay committed.
+     */
+    @Test
+    void testFailedChunkIsRolledBack() {
+        Publisher publisher = createPublisher();
+
+        Stream<Book> books = IntStream.range(0, 150).mapToObj(i -> {
+            Book book = newBook(publisher, i);
+            if (i == 120) {
+                book.setIsbn("invalid-isbn");
+            }
+            return book;
+        });
+
+        assertThrows(jakarta.validation.ConstraintViolationException.class, () -> bookRepo.importBooks(books));
+        assertEquals(100, bookRepo.getAllBooks().size(), "Only the first chunk should have been committed.");
+    }
+
+    /**
+     * Tests that with an explicit chunk size a whole chunk is committed or rolled back together.
+     */
+    @Test
+    void testExplicitChunkSize() {
+        Publisher publisher = createPublisher();
+
+        Stream<Book> failing = IntStream.range(0, 150).mapToObj(i -> {
+            Book book = newBook(publisher, i);
+            if (i == 120) {
+                book.setIsbn("invalid-isbn");
+            }
+            return book;
+        });
+        assertThrows(jakarta.validation.ConstraintViolationException.class, () -> bookRepo.importBooks(failing, 150));
+        assertEquals(0, bookRepo.getAllBooks().size(), "The whole chunk should have been rolled back.");
+
+        ImportReport report = bookRepo.importBooks(IntStream.range(0, 150).mapToObj(i -> newBook(publisher, i)), 150);
+        assertEquals(150, report.imported());
+        assertEquals(1, report.chunks(), "All books should have been committed in one chunk.");
+    }
+
+    /**
+     * Tests that importing an empty stream does nothing.
+     */
+    @Test
+    void testImportEmptyStream() {
+        ImportReport report = bookRepo.importBooks(Stream.empty());
+
+        assertEquals(0, report.imported());
+        assertEquals(0, report.chunks());
+    }
+
+    private Publisher createPublisher() {
+        Publisher publisher = new Publisher();
+        publisher.setName("Bulk Publisher");
+        publisherRepo.createPublisher(publisher);
+        return publisher;
+    }
+
+    private Book newBook(Publisher publisher, int i) {
+        Book book = new Book();
+        book.setTitle("Title " + i);
+        book.setAuthor("Author " + i);
+        book.setPublisherEntity(publisher);
+        book.setPublicationYear(2000);
+        book.setIsbn(String.format("978%010d", i));
+        return book;
+    }
+}
@@ -0,0 +1,205 @@
+import Entities.*;
+import Repositories.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the second-level cache of the catalog entities.
+ * Checks that repeated reads are served from the cache and that repository writes keep it consistent.
+ */
+class CatalogCacheTests {
+
+    BookRepo bookRepo = new BookRepo();
+    CopyRepo copyRepo = new CopyRepo();
+    PublisherRepo publisherRepo = new PublisherRepo();
+    UserRepo userRepo = new UserRepo();
+    BorrowingRepo borrowingRepo = new BorrowingRepo();
+
+    /**
+     * Clears the database and the cache before each test to ensure a clean state.
+     */
+    @BeforeEach
+    void clearDatabase() {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Borrowing").executeUpdate();
+        em.createQuery("DELETE FROM Librarian").executeUpdate();
+        em.createQuery("DELETE FROM Copy").executeUpdate();
+        em.createQuery("DELETE FROM Book").executeUpdate();
+        em.createQuery("DELETE FROM Publisher").executeUpdate();
+        em.createQuery("DELETE FROM User").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+
+        CatalogCache.evictAll();
+    }
+
+    /**
+     * Clears the database after each test too, because some test classes only clean up books without copies.
+     */
+    @AfterEach
+    void clearDatabaseAfter() {
+        clearDatabase();
+    }
+
+    /**
+     * Tests that reading the same book twice is served from the cache the second time.
+     */
+    @Test
+    void testRepeatedFindIsCacheHit() {
+        Book book = createBook("9780451524935");
+
+        bookRepo.findBookById(book.getId());
+        long hitsBefore = CatalogCache.getRegionStats(CatalogCache.BOOK_REGION).hits();
+
+        Book cached = bookRepo.findBookById(book.getId());
+        long hitsAfter = CatalogCache.getRegionStats(CatalogCache.BOOK_REGION).hits();
+
+        assertEquals("1984", cached.getTitle());
+        assertTrue(hitsAfter > hitsBefore, "The second read should be a cache hit.");
+    }
+
+    /**
+     * Tests that an update through the repository is visible to the next read.
+     */
+    @Test
+    void testUpdateRefreshesCachedEntity() {
+        Publisher publisher = createPublisher();
+        publisherRepo.findPublisherById(publisher.getId());
+
+        publisher.setName("Renamed Publisher");
+        publisherRepo.updatePublisher(publisher);
+
+        assertEquals("Renamed Publisher", publisherRepo.findPublisherById(publisher.getId()).getName(),
+                "The cached publisher should reflect the update.");
+    }
+
+    /**
+     * Tests that adding a copy invalidates the cached copies collection of its book.
+     */
+    @Test
+    void testCreateCopyInvalidatesCopiesCollection() {
+        Book book = createBook("9780061120084");
+
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        assertTrue(em.find(Book.class, book.getId()).getCopies().isEmpty(), "The book should start without copies.");
+        em.close();
+
+        Copy copy = new Copy();
+        copy.setBook(book);
+        copy.setCopyNumber(1);
+        copy.setStatus(CopyStatus.AVAILABLE);
+        copyRepo.createCopy(copy);
+
+        em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        int copies = em.find(Book.class, book.getId()).getCopies().size();
+        em.close();
+        assertEquals(1, copies, "The cached copies collection should include the new copy.");
+        assertThrows(PersistenceException.class, () -> bookRepo.deleteBook(book.getId()),
+                "A book with copies should not be deletable.");
+    }
+
+    /**
+     * Tests that repeating the availability query is served from the query cache
+     * and that a borrow is reflected by the next call.
+     */
+    @Test
+    void testAvailableCopiesQueryCache() {
+        Book book = createBook("9780316769488");
+        Copy copy = new Copy();
+        copy.setBook(book);
+        copy.setCopyNumber(1);
+        copy.setStatus(CopyStatus.AVAILABLE);
+        copyRepo.createCopy(copy);
+
+        copyRepo.getAvailableCopies();
+        long hitsBefore = CatalogCache.getQueryStats().hits();
+        List<Copy> available = copyRepo.getAvailableCopies();
+        assertEquals(1, available.size());
+        assertTrue(CatalogCache.getQueryStats().hits() > hitsBefore, "The repeated query should be a query cache hit.");
+
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("john.doe@example.com");
+        userRepo.createUser(user);
+
+        Borrowing borrowing = new Borrowing();
+        borrowing.setUser(user);
+        borrowing.setCopy(copy);
+        borrowing.setBorrowDate(new Date());
+        borrowingRepo.createBorrowing(borrowing);
+
+        assertTrue(copyRepo.getAvailableCopies().isEmpty(), "A borrowed copy should disappear from the cached result immediately.");
+    }
+
+    /**
+     * Tests what a borrow without loading does to the cache: the lent copy is read fresh, the other cached
+     * copies are dropped with it, and the cached book is kept.
+     */
+    @Test
+    void testBorrowCopyCacheRegionStats() {
+        Book book = createBook("9780141187761");
+        Copy lent = createCopy(book, 1);
+        Copy other = createCopy(book, 2);
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("john.doe@example.com");
+        userRepo.createUser(user);
+
+        copyRepo.findCopyById(lent.getId());
+        copyRepo.findCopyById(other.getId());
+        bookRepo.findBookById(book.getId());
+        CacheRegionStats copiesBefore = CatalogCache.getRegionStats(CatalogCache.COPY_REGION);
+        CacheRegionStats booksBefore = CatalogCache.getRegionStats(CatalogCache.BOOK_REGION);
+
+        assertTrue(borrowingRepo.borrowCopy(user.getId(), lent.getId()));
+
+        assertEquals(CopyStatus.BORROWED, copyRepo.findCopyById(lent.getId()).getStatus(),
+                "The lent copy should not be served stale from the cache.");
+        copyRepo.findCopyById(other.getId());
+        bookRepo.findBookById(book.getId());
+        CacheRegionStats copiesAfter = CatalogCache.getRegionStats(CatalogCache.COPY_REGION);
+        CacheRegionStats booksAfter = CatalogCache.getRegionStats(CatalogCache.BOOK_REGION);
+
+        assertEquals(copiesBefore.misses() + 2, copiesAfter.misses(), "Both cached copies should have been dropped by the bulk update.");
+        assertEquals(copiesBefore.hits(), copiesAfter.hits());
+        assertEquals(booksBefore.hits() + 1, booksAfter.hits(), "The cached book should survive a borrow.");
+    }
+
+    private Copy createCopy(Book book, int copyNumber) {
+        Copy copy = new Copy();
+        copy.setBook(book);
+        copy.setCopyNumber(copyNumber);
+        copy.setStatus(CopyStatus.AVAILABLE);
+        copyRepo.createCopy(copy);
+        return copy;
+    }
+
+    private Publisher createPublisher() {
+        Publisher publisher = new Publisher();
+        publisher.setName("Sample Publisher");
+        publisher.setAddress("123 Publisher St");
+        publisher.setPhoneNumber("555-1234");
+        publisherRepo.createPublisher(publisher);
+        return publisher;
+    }
+
+    private Book createBook(String isbn) {
+        Book book = new Book();
+        book.setTitle("1984");
+        book.setAuthor("George Orwell");
+        book.setPublisherEntity(createPublisher());
+        book.setPublicationYear(1949);
+        book.setIsbn(isbn);
+        bookRepo.createBook(book);
+        return book;
+    }
+}
@@ -0,0 +1,161 @@
+import Entities.Book;
+import Entities.Publisher;
+import Repositories.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the command-line catalog importer.
+ * Covers both input formats, row validation, publisher lookup and resuming from a checkpoint.
+ */
+class CatalogImporterTests {
+
+    BookRepo bookRepo = new BookRepo();
+    CopyRepo copyRepo = new CopyRepo();
+    PublisherRepo publisherRepo = new PublisherRepo();
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Clears the database before each test to ensure a clean state.
+     */
+    @BeforeEach
+    void clearDatabase() {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Borrowing").executeUpdate();
+        em.createQuery("DELETE FROM Librarian").executeUpdate();
+        em.createQuery("DELETE FROM Copy").executeUpdate();
+        em.createQuery("DELETE FROM Book").executeUpdate();
+        em.createQuery("DELETE FROM Publisher").executeUpdate();
+        em.createQuery("DELETE FROM User").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    /**
+     * Tests importing a CSV file with valid and invalid rows.
+     */
+    @Test
+    void testImportCsv() throws IOException {
+        Publisher existing = new Publisher();
+        existing.setName("Penguin Random House");
+        publisherRepo.createPublisher(existing);
+
+        Path file = write("catalog.csv",
+                "title,author,publisher,year,isbn,copies",
+                "1984,George Orwell,Penguin Random House,1949,978-0-451-52493-5,2",
+                "\"Mockingbird, To Kill a\",Harper Lee,HarperCollins,1960,9780061120084,1",
+                "Bad Checksum,Someone,HarperCollins,2000,9780451524936,1",
+                "Duplicate,Someone,HarperCollins,2000,9780451524935,1",
+                "No Author,,HarperCollins,2000,9780316769488,1",
+                "Old Isbn,Someone,HarperCollins,1979,0306406152,");
+
+        CatalogImporter.Summary summary = run(file, CatalogImporter.Format.CSV, 2);
+
+        assertEquals(3, summary.books());
+        assertEquals(3, summary.copies());
+        assertEquals(1, summary.publishers(), "Only HarperCollins should be created.");
+        assertEquals(3, summary.rejected());
+        assertEquals(2, publisherRepo.getAllPublishers().size());
+        assertEquals(3, copyRepo.getAllCopies().size());
+
+        Book mockingbird = bookRepo.getAllBooks().stream()
+                .filter(book -> book.getIsbn().equals("9780061120084")).findFirst().orElseThrow();
+        assertEquals("Mockingbird, To Kill a", mockingbird.getTitle());
+
+        List<String> rejected = Files.readAllLines(dir.resolve("catalog.csv.rejected"));
+        assertEquals(3, rejected.size());
+        assertTrue(rejected.get(0).startsWith("4\tInvalid ISBN"));
+        assertTrue(rejected.get(1).startsWith("5\tDuplicate ISBN"));
+        assertTrue(rejected.get(2).startsWith("6\tMissing mandatory field"));
+        assertFalse(Files.exists(dir.resolve("catalog.csv.checkpoint")), "A finished import should remove its checkpoint.");
+    }
+
+    /**
+     * Tests importing a JSON-lines file.
+     */
+    @Test
+    void testImportJsonLines() throws IOException {
+        Path file = write("catalog.jsonl",
+                "{\"publisher\":\"Scribner\",\"title\":\"The Great Gatsby\",\"author\":\"F. Scott Fitzgerald\",\"year\":1925,\"isbn\":\"9780743273565\",\"copies\":3}",
+                "{\"publisher\":\"Scribner\",\"title\":",
+                "{\"publisher\":\"Little, Brown\",\"title\":\"The Catcher in the Rye\",\"author\":\"J. D. Salinger\",\"year\":1951,\"isbn\":\"9780316769488\"}");
+
+        CatalogImporter.Summary summary = run(file, CatalogImporter.Format.of(file), 100);
+
+        assertEquals(2, summary.books());
+        assertEquals(3, summary.copies());
+        assertEquals(1, summary.rejected());
+        assertEquals(2, bookRepo.getAllBooks().size());
+    }
+
+    /**
+     * Tests that an import with a checkpoint skips the lines imported before.
+     */
+    @Test
+    void testResumeFromCheckpoint() throws IOException {
+        Path file = write("catalog.csv",
+                "publisher,title,author,year,isbn,copies",
+                "Scribner,The Great Gatsby,F. Scott Fitzgerald,1925,9780743273565,1",
+                "Little Brown,The Catcher in the Rye,J. D. Salinger,1951,9780316769488,1");
+        Files.writeString(dir.resolve("catalog.csv.checkpoint"), "2");
+
+        CatalogImporter.Summary summary = run(file, CatalogImporter.Format.CSV, 100);
+
+        assertEquals(1, summary.books());
+        assertEquals("9780316769488", bookRepo.getAllBooks().get(0).getIsbn());
+    }
+
+    /**
+     * Tests that a CSV file whose header lacks a required column is refused before anything is imported.
+     */
+    @Test
+    void testCsvHeaderWithoutRequiredColumn() throws IOException {
+        Path file = write("catalog.csv",
+                "publisher,title,author,year,copies",
+                "Scribner,The Great Gatsby,F. Scott Fitzgerald,1925,1");
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> run(file, CatalogImporter.Format.CSV, 100));
+
+        assertTrue(error.getMessage().contains("isbn"), error.getMessage());
+        assertTrue(publisherRepo.getAllPublishers().isEmpty(), "No publisher should be created.");
+        assertFalse(Files.exists(dir.resolve("catalog.csv.rejected")), "No rejected-rows file should be written.");
+    }
+
+    /**
+     * Tests the ISBN check digit validation.
+     */
+    @Test
+    void testIsbnValidation() {
+        assertTrue(CatalogImporter.isValidIsbn("9780451524935"));
+        assertTrue(CatalogImporter.isValidIsbn("080442957X"));
+        assertFalse(CatalogImporter.isValidIsbn("9780451524936"));
+        assertFalse(CatalogImporter.isValidIsbn("0306406153"));
+        assertFalse(CatalogImporter.isValidIsbn("invalid-isbn"));
+    }
+
+    private CatalogImporter.Summary run(Path file, CatalogImporter.Format format, int chunkSize) throws IOException {
+        PrintStream out = new PrintStream(new ByteArrayOutputStream());
+        return new CatalogImporter(file, format, chunkSize, out).run();
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, List.of(lines));
+        return file;
+    }
+}
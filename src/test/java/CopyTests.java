@@ -1,11 +1,12 @@
 import Entities.Book;
 import Entities.Copy;
+import Entities.CopyStatus;
 import Entities.Publisher;
 import Repositories.BookRepo;
 import Repositories.CopyRepo;
+import Repositories.PersistenceManager;
 import Repositories.PublisherRepo;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Persistence;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -28,7 +29,7 @@ public class CopyTests {
      */
     @BeforeEach
     void clearDatabase() {
-        EntityManager em = Persistence.createEntityManagerFactory("LMS-PU").createEntityManager();
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
         em.getTransaction().begin();
 
         em.createQuery("DELETE FROM Borrowing").executeUpdate();
@@ -70,13 +71,13 @@ public class CopyTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(1);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
 
         copyRepo.createCopy(copy);
 
         Copy retrievedCopy = copyRepo.findCopyById(copy.getId());
         assertNotNull(retrievedCopy, "Copy should be created and found in the database.");
-        assertEquals("Available", retrievedCopy.getStatus());
+        assertEquals(CopyStatus.AVAILABLE, retrievedCopy.getStatus());
         assertEquals(book.getId(), retrievedCopy.getBook().getId());
     }
 
@@ -103,15 +104,15 @@ public class CopyTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(1);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
-        copy.setStatus("Borrowed");
+        copy.setStatus(CopyStatus.BORROWED);
         copyRepo.updateCopy(copy);
 
         Copy updatedCopy = copyRepo.findCopyById(copy.getId());
         assertNotNull(updatedCopy, "Updated copy should be found.");
-        assertEquals("Borrowed", updatedCopy.getStatus());
+        assertEquals(CopyStatus.BORROWED, updatedCopy.getStatus());
     }
 
     /**
@@ -137,7 +138,7 @@ public class CopyTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(1);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         copyRepo.deleteCopy(copy.getId());
@@ -154,7 +155,7 @@ public class CopyTests {
         Copy copy = new Copy();
         copy.setBook(null);
         copy.setCopyNumber(1);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
 
         Exception exception = assertThrows(Exception.class, () -> copyRepo.createCopy(copy));
         assertNotNull(exception, "Creating a copy with null mandatory fields should throw an exception.");
@@ -183,13 +184,13 @@ public class CopyTests {
         Copy copy1 = new Copy();
         copy1.setBook(book);
         copy1.setCopyNumber(1);
-        copy1.setStatus("Available");
+        copy1.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy1);
 
         Copy copy2 = new Copy();
         copy2.setBook(book);
         copy2.setCopyNumber(1);
-        copy2.setStatus("Available");
+        copy2.setStatus(CopyStatus.AVAILABLE);
 
         Exception exception = assertThrows(Exception.class, () -> copyRepo.createCopy(copy2));
         assertNotNull(exception, "Creating a copy with duplicate copyNumber for the same book should throw an exception.");
@@ -1,9 +1,9 @@
 import Entities.Librarian;
 import Entities.User;
 import Repositories.LibrarianRepo;
+import Repositories.PersistenceManager;
 import Repositories.UserRepo;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Persistence;
 import jakarta.persistence.PersistenceException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,7 +28,7 @@ public class LibrarianTests {
      */
     @BeforeEach
     void clearDatabase() {
-        EntityManager em = Persistence.createEntityManagerFactory("LMS-PU").createEntityManager();
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
         em.getTransaction().begin();
 
         em.createQuery("DELETE FROM Borrowing").executeUpdate();
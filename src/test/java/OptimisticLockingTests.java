@@ -0,0 +1,212 @@
+import Entities.*;
+import Repositories.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the optimistic locking of copies and borrowings.
+ * Covers rejected stale updates and concurrent borrowings of the same copy.
+ */
+class OptimisticLockingTests {
+
+    BookRepo bookRepo = new BookRepo();
+    CopyRepo copyRepo = new CopyRepo();
+    BorrowingRepo borrowingRepo = new BorrowingRepo();
+    PublisherRepo publisherRepo = new PublisherRepo();
+    UserRepo userRepo = new UserRepo();
+
+    /**
+     * Clears the database before each test to ensure a clean state.
+     */
+    @BeforeEach
+    void clearDatabase() {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Borrowing").executeUpdate();
+        em.createQuery("DELETE FROM Librarian").executeUpdate();
+        em.createQuery("DELETE FROM Copy").executeUpdate();
+        em.createQuery("DELETE FROM Book").executeUpdate();
+        em.createQuery("DELETE FROM Publisher").executeUpdate();
+        em.createQuery("DELETE FROM User").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    /**
+     * Tests that every update increases the version of a copy.
+     */
+    @Test
+    void testUpdateIncreasesVersion() {
+        Copy copy = createCopy();
+        Integer created = copy.getVersion();
+
+        Copy loaded = copyRepo.findCopyById(copy.getId());
+        loaded.setStatus(CopyStatus.BORROWED);
+        copyRepo.updateCopy(loaded);
+
+        assertNotNull(created, "A saved copy should have a version.");
+        assertEquals(created + 1, copyRepo.findCopyById(copy.getId()).getVersion());
+    }
+
+    /**
+     * Tests that an update made from an outdated copy is rejected and does not overwrite the newer change.
+     */
+    @Test
+    void testStaleCopyUpdateIsRejected() {
+        Copy copy = createCopy();
+        Copy first = copyRepo.findCopyById(copy.getId());
+        Copy second = copyRepo.findCopyById(copy.getId());
+
+        first.setStatus(CopyStatus.BORROWED);
+        copyRepo.updateCopy(first);
+        second.setStatus(CopyStatus.LOST);
+
+        ConflictException conflict = assertThrows(ConflictException.class, () -> copyRepo.updateCopy(second));
+        assertFalse(conflict.getCause() instanceof ConflictException, "The conflict should not be wrapped twice.");
+        assertEquals(CopyStatus.BORROWED, copyRepo.findCopyById(copy.getId()).getStatus());
+    }
+
+    /**
+     * Tests that updating a copy that doesn't exist is reported as an invalid argument.
+     */
+    @Test
+    void testUpdateMissingCopy() {
+        Copy copy = createCopy();
+        Copy missing = copyRepo.findCopyById(copy.getId());
+        copyRepo.deleteCopy(copy.getId());
+
+        assertThrows(IllegalArgumentException.class, () -> copyRepo.updateCopy(missing));
+    }
+
+    /**
+     * Tests that a borrowing increases the version of its copy even when the copy's status doesn't change,
+     * so concurrent borrowings of a copy marked borrowed without an open borrowing still conflict.
+     */
+    @Test
+    void testBorrowingIncreasesCopyVersion() {
+        Copy copy = createCopy();
+        Copy loaded = copyRepo.findCopyById(copy.getId());
+        loaded.setStatus(CopyStatus.BORROWED);
+        copyRepo.updateCopy(loaded);
+        Integer before = copyRepo.findCopyById(copy.getId()).getVersion();
+
+        Borrowing borrowing = new Borrowing();
+        borrowing.setUser(createUser("Jane Doe", "jane.doe@example.com"));
+        borrowing.setCopy(copy);
+        borrowing.setBorrowDate(new Date());
+        borrowingRepo.createBorrowing(borrowing);
+
+        assertEquals(before + 1, copyRepo.findCopyById(copy.getId()).getVersion());
+    }
+
+    /**
+     * Tests that a return made from an outdated borrowing is rejected.
+     */
+    @Test
+    void testStaleBorrowingUpdateIsRejected() {
+        Copy copy = createCopy();
+        Borrowing borrowing = new Borrowing();
+        borrowing.setUser(createUser("Jane Doe", "jane.doe@example.com"));
+        borrowing.setCopy(copy);
+        borrowing.setBorrowDate(new Date());
+        borrowingRepo.createBorrowing(borrowing);
+
+        Borrowing first = borrowingRepo.findBorrowingById(borrowing.getId());
+        Borrowing second = borrowingRepo.findBorrowingById(borrowing.getId());
+        first.setReturnDate(new Date());
+        borrowingRepo.updateBorrowing(first);
+        second.setReturnDate(new Date(System.currentTimeMillis() + 86_400_000L));
+
+        ConflictException conflict = assertThrows(ConflictException.class, () -> borrowingRepo.updateBorrowing(second));
+        assertFalse(conflict.getCause() instanceof ConflictException, "The conflict should not be wrapped twice.");
+    }
+
+    /**
+     * Tests that when many users borrow the same copy at the same time, exactly one of them gets it
+     * and the others are told it is already borrowed.
+     */
+    @Test
+    void testConcurrentBorrowingsOfOneCopy() throws Exception {
+        Copy copy = createCopy();
+        int borrowers = 8;
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < borrowers; i++) {
+            users.add(createUser("User " + i, "user" + i + "@example.com"));
+        }
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(borrowers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (User user : users) {
+                results.add(executor.submit(() -> {
+                    Borrowing borrowing = new Borrowing();
+                    borrowing.setUser(user);
+                    borrowing.setCopy(copy);
+                    borrowing.setBorrowDate(new Date());
+                    start.await();
+                    try {
+                        borrowingRepo.createBorrowing(borrowing);
+                        succeeded.incrementAndGet();
+                    } catch (IllegalStateException | ConflictException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, succeeded.get(), "Exactly one borrowing should succeed.");
+        assertEquals(borrowers - 1, rejected.get());
+        assertEquals(1, borrowingRepo.countBorrowings(), "Only one borrowing should be saved.");
+        assertEquals(CopyStatus.BORROWED, copyRepo.findCopyById(copy.getId()).getStatus());
+    }
+
+    private Copy createCopy() {
+        Publisher publisher = new Publisher();
+        publisher.setName("Sample Publisher");
+        publisherRepo.createPublisher(publisher);
+
+        Book book = new Book();
+        book.setTitle("1984");
+        book.setAuthor("George Orwell");
+        book.setPublisherEntity(publisher);
+        book.setPublicationYear(1949);
+        book.setIsbn("9780451524935");
+        bookRepo.createBook(book);
+
+        Copy copy = new Copy();
+        copy.setBook(book);
+        copy.setCopyNumber(1);
+        copy.setStatus(CopyStatus.AVAILABLE);
+        copyRepo.createCopy(copy);
+        return copy;
+    }
+
+    private User createUser(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPhoneNumber("123456789");
+        user.setAddress("123 Elm Street");
+        userRepo.createUser(user);
+        return user;
+    }
+}
@@ -0,0 +1,191 @@
+import GUI.PagedTableModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the paged table model with a fake page loader instead of the database.
+ * Covers dropping the least recently shown page, ignoring pages of an earlier refresh and not retrying failed pages.
+ * The model is only touched on the event dispatch thread, as in the dashboards; no window is shown.
+ */
+class PagedTableModelTests {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final Map<Integer, AtomicInteger> loadsByOffset = new ConcurrentHashMap<>();
+    private PagedTableModel<String> model;
+
+    /**
+     * Stops the background loader of the model after each test.
+     */
+    @AfterEach
+    void disposeModel() throws Exception {
+        if (model != null) {
+            runOnEdt(() -> model.dispose());
+        }
+    }
+
+    /**
+     * Tests that at most the configured number of pages are kept, and that the least recently shown page
+     * is dropped and loaded again when it is shown next.
+     */
+    @Test
+    void testLeastRecentlyShownPageIsDropped() throws Exception {
+        model = createModel(30, 2, (offset, limit) -> rows("row", offset, limit));
+        onEdt(() -> model.refresh()).get(10, TimeUnit.SECONDS);
+
+        awaitData(0);
+        awaitData(10); // showing the second page also prefetches the third, which drops the first
+        await(() -> loads(20) == 1 && !PagedTableModel.isPlaceholder(valueAt(20)));
+
+        assertEquals(PagedTableModel.LOADING, valueAt(0), "The least recently shown page should have been dropped.");
+        awaitData(0);
+        assertEquals("row 0", valueAt(0));
+        assertEquals(2, loads(0), "The dropped page should be loaded again.");
+    }
+
+    /**
+     * Tests that a page requested before a refresh is dropped when it arrives after it, so it can't
+     * overwrite the rows loaded for the refresh.
+     */
+    @Test
+    void testPageOfEarlierRefreshIsDropped() throws Exception {
+        CountDownLatch firstLoadStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstLoad = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        model = createModel(PAGE_SIZE, 2, (offset, limit) -> {
+            if (calls.incrementAndGet() == 1) {
+                firstLoadStarted.countDown();
+                await(releaseFirstLoad);
+                return rows("stale", offset, limit);
+            }
+            return rows("fresh", offset, limit);
+        });
+        onEdt(() -> model.refresh()).get(10, TimeUnit.SECONDS);
+
+        assertEquals(PagedTableModel.LOADING, valueAt(0));
+        assertTrue(firstLoadStarted.await(10, TimeUnit.SECONDS));
+        runOnEdt(() -> model.refresh());
+        assertEquals(PagedTableModel.LOADING, valueAt(0));
+        releaseFirstLoad.countDown();
+
+        awaitData(0);
+        assertEquals("fresh 0", valueAt(0), "The page of the earlier refresh should have been dropped.");
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Tests that a page that failed to load shows the error, is not requested again while it is shown,
+     * and is loaded again after a refresh.
+     */
+    @Test
+    void testFailedPageIsNotRetriedUntilRefresh() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        model = createModel(2 * PAGE_SIZE, 2, (offset, limit) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return rows("row", offset, limit);
+        });
+        onEdt(() -> model.refresh()).get(10, TimeUnit.SECONDS);
+
+        await(() -> valueAt(0) instanceof String text && text.startsWith(PagedTableModel.LOAD_FAILED));
+        assertEquals(PagedTableModel.LOAD_FAILED + ": database unavailable", valueAt(0));
+        assertTrue(PagedTableModel.isPlaceholder(valueAt(0)));
+        // Pages are loaded one after the other, so a wrongly repeated request would be loaded before this one
+        awaitData(PAGE_SIZE);
+        assertEquals(1, loads(0), "A failed page should not be requested again until the next refresh.");
+
+        onEdt(() -> model.refresh()).get(10, TimeUnit.SECONDS);
+        awaitData(0);
+        assertEquals("row 0", valueAt(0));
+        assertEquals(2, loads(0));
+    }
+
+    private PagedTableModel<String> createModel(int rowCount, int maxPages, PagedTableModel.PageLoader<String> loader) throws Exception {
+        return onEdt(() -> new PagedTableModel<>(new String[]{"Value"}, () -> rowCount, (offset, limit) -> {
+            loadsByOffset.computeIfAbsent(offset, key -> new AtomicInteger()).incrementAndGet();
+            return loader.load(offset, limit);
+        }, value -> new String[]{value}, PAGE_SIZE, maxPages));
+    }
+
+    private static List<String> rows(String prefix, int offset, int limit) {
+        List<String> rows = new ArrayList<>();
+        for (int i = offset; i < offset + limit; i++) {
+            rows.add(prefix + " " + i);
+        }
+        return rows;
+    }
+
+    private int loads(int offset) {
+        AtomicInteger loads = loadsByOffset.get(offset);
+        return loads == null ? 0 : loads.get();
+    }
+
+    private Object valueAt(int row) {
+        try {
+            return onEdt(() -> model.getValueAt(row, 0));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitData(int row) throws InterruptedException {
+        await(() -> !PagedTableModel.isPlaceholder(valueAt(row)));
+    }
+
+    /**
+     * Waits until a condition holds, checking it again every few milliseconds, for at most ten seconds.
+     */
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "The model did not reach the expected state in time.");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs an action on the event dispatch thread and waits for its result.
+     */
+    private static <V> V onEdt(Callable<V> action) throws Exception {
+        AtomicReference<V> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                result.set(action.call());
+            } catch (Exception e) {
+                error.set(e);
+            }
+        });
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return result.get();
+    }
+
+    private static void runOnEdt(Runnable action) throws Exception {
+        SwingUtilities.invokeAndWait(action);
+    }
+}
@@ -0,0 +1,129 @@
+import Entities.Publisher;
+import Entities.User;
+import Repositories.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the paged read methods of the repositories.
+ * Checks that keyset and offset slices cover the table exactly once and in ID order.
+ */
+class PaginationTests {
+
+    PublisherRepo publisherRepo = new PublisherRepo();
+    UserRepo userRepo = new UserRepo();
+
+    /**
+     * Clears the database before each test to ensure a clean state.
+     */
+    @BeforeEach
+    void clearDatabase() {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Borrowing").executeUpdate();
+        em.createQuery("DELETE FROM Librarian").executeUpdate();
+        em.createQuery("DELETE FROM Copy").executeUpdate();
+        em.createQuery("DELETE FROM Book").executeUpdate();
+        em.createQuery("DELETE FROM Publisher").executeUpdate();
+        em.createQuery("DELETE FROM User").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    /**
+     * Tests that walking the table with keyset slices returns every row once, in ID order.
+     */
+    @Test
+    void testKeysetWalkCoversTable() {
+        createPublishers(25);
+
+        List<Publisher> walked = new ArrayList<>();
+        List<Integer> sliceSizes = new ArrayList<>();
+        Integer afterId = null;
+        List<Publisher> slice;
+        while (!(slice = publisherRepo.getPublishersAfter(afterId, 10)).isEmpty()) {
+            walked.addAll(slice);
+            sliceSizes.add(slice.size());
+            afterId = slice.get(slice.size() - 1).getId();
+        }
+
+        assertEquals(List.of(10, 10, 5), sliceSizes);
+        assertEquals(25, walked.size());
+        for (int i = 1; i < walked.size(); i++) {
+            assertTrue(walked.get(i).getId() > walked.get(i - 1).getId(), "Slices should be ordered by ID.");
+        }
+        assertEquals(25, publisherRepo.countPublishers());
+    }
+
+    /**
+     * Tests that an offset page returns the rows at that position.
+     */
+    @Test
+    void testOffsetPage() {
+        createPublishers(12);
+        List<Publisher> all = publisherRepo.getPublishersAfter(null, 100);
+
+        List<Publisher> page = publisherRepo.getPublishersPage(5, 4);
+
+        assertEquals(4, page.size());
+        assertEquals(all.get(5).getId(), page.get(0).getId());
+        assertEquals(all.get(8).getId(), page.get(3).getId());
+        assertTrue(publisherRepo.getPublishersPage(12, 4).isEmpty(), "A page past the end should be empty.");
+    }
+
+    /**
+     * Tests counting and slicing an empty table.
+     */
+    @Test
+    void testEmptyTable() {
+        assertEquals(0, userRepo.countUsers());
+        assertTrue(userRepo.getUsersAfter(null, 10).isEmpty());
+        assertTrue(userRepo.getUsersPage(0, 10).isEmpty());
+    }
+
+    /**
+     * Tests that slices follow rows added between calls.
+     */
+    @Test
+    void testKeysetSeesNewRows() {
+        User first = new User();
+        first.setName("First User");
+        first.setEmail("first@example.com");
+        userRepo.createUser(first);
+
+        List<User> slice = userRepo.getUsersAfter(null, 10);
+        assertEquals(1, slice.size());
+
+        User second = new User();
+        second.setName("Second User");
+        second.setEmail("second@example.com");
+        userRepo.createUser(second);
+
+        List<User> next = userRepo.getUsersAfter(slice.get(0).getId(), 10);
+        assertEquals(1, next.size());
+        assertEquals("Second User", next.get(0).getName());
+    }
+
+    /**
+     * Tests that invalid slice bounds are rejected.
+     */
+    @Test
+    void testInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> publisherRepo.getPublishersAfter(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> publisherRepo.getPublishersPage(-1, 10));
+    }
+
+    private void createPublishers(int count) {
+        for (int i = 0; i < count; i++) {
+            Publisher publisher = new Publisher();
+            publisher.setName("Publisher " + i);
+            publisherRepo.createPublisher(publisher);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import Repositories.BookRepo;
+import Repositories.ConnectionPoolStats;
+import Repositories.PersistenceManager;
+import Repositories.StartupProfile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the shared persistence context provider.
+ * Ensures that all callers get the same factory and that the lifecycle methods behave as expected.
+ */
+class PersistenceManagerTests {
+
+    /**
+     * Tests that repeated calls return the same running factory.
+     */
+    @Test
+    void testFactoryIsShared() {
+        EntityManagerFactory first = PersistenceManager.getEntityManagerFactory();
+        EntityManagerFactory second = PersistenceManager.getEntityManagerFactory();
+
+        assertSame(first, second, "All callers should share one EntityManagerFactory.");
+        assertTrue(first.isOpen(), "The shared factory should be open.");
+        assertTrue(PersistenceManager.isRunning(), "The persistence manager should report it is running.");
+    }
+
+    /**
+     * Tests that a factory closed through shutdown is replaced by a new one on the next request.
+     */
+    @Test
+    void testShutdownAndRestart() {
+        EntityManagerFactory before = PersistenceManager.getEntityManagerFactory();
+
+        PersistenceManager.shutdown();
+        assertFalse(before.isOpen(), "The factory should be closed after shutdown.");
+        assertFalse(PersistenceManager.isRunning(), "The persistence manager should not be running after shutdown.");
+
+        EntityManagerFactory after = PersistenceManager.getEntityManagerFactory();
+        assertNotSame(before, after, "A new factory should be created after shutdown.");
+        assertTrue(after.isOpen(), "The new factory should be open.");
+    }
+
+    /**
+     * Tests that a repository created before a restart uses the new factory afterwards.
+     */
+    @Test
+    void testRepositorySurvivesRestart() {
+        BookRepo bookRepo = new BookRepo();
+        long books = bookRepo.countBooks();
+
+        PersistenceManager.shutdown();
+        PersistenceManager.startup();
+
+        assertEquals(books, bookRepo.countBooks(), "The repository should read through the restarted factory.");
+    }
+
+    /**
+     * Tests that the pool counters reflect a connection held by an open transaction.
+     */
+    @Test
+    void testConnectionPoolStats() {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("SELECT COUNT(b) FROM Book b").getSingleResult();
+
+        ConnectionPoolStats busy = PersistenceManager.getConnectionPoolStats();
+        assertTrue(busy.active() >= 1, "The connection used by the open transaction should be counted as active.");
+        assertEquals(busy.total(), busy.active() + busy.idle(), "Total connections should be active plus idle.");
+
+        em.getTransaction().commit();
+        em.close();
+
+        ConnectionPoolStats released = PersistenceManager.getConnectionPoolStats();
+        assertTrue(released.idle() >= 1, "The connection should return to the pool after the transaction ends.");
+        assertEquals(0, released.waiting(), "No thread should be waiting for a connection.");
+    }
+
+    /**
+     * Tests that a background boot starts the shared factory and records its phases in the startup profile.
+     */
+    @Test
+    void testStartupInBackground() throws Exception {
+        PersistenceManager.shutdown();
+
+        PersistenceManager.startupInBackground().get(60, TimeUnit.SECONDS);
+
+        assertTrue(PersistenceManager.isRunning(), "The factory should be running after the background boot.");
+        assertTrue(PersistenceManager.startupInBackground().isDone(), "A running factory should not be booted again.");
+        List<String> phases = StartupProfile.getPhases().stream().map(StartupProfile.Phase::name).toList();
+        assertTrue(phases.containsAll(List.of(StartupProfile.SCHEMA_CHECK, StartupProfile.HIBERNATE_BOOT)), phases.toString());
+    }
+}
@@ -0,0 +1,157 @@
+import Entities.*;
+import Repositories.*;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating that the repository queries with a search condition are answered through an index.
+ * Records the SQL Hibernate sends for each query and checks its H2 execution plan for table scans.
+ * Boots the persistence unit against a separate in-memory database.
+ */
+class QueryPlanTests {
+
+    private static final String PLAN_URL = "jdbc:h2:mem:plans;DB_CLOSE_DELAY=-1";
+
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    BookRepo bookRepo;
+    BorrowingRepo borrowingRepo;
+    CopyRepo copyRepo;
+    PublisherRepo publisherRepo;
+    UserRepo userRepo;
+
+    User user;
+    Book book;
+    Copy copy;
+
+    /**
+     * Boots the persistence unit with a statement recorder and adds a user with an active borrowing.
+     */
+    @BeforeEach
+    void startRecording() {
+        PersistenceManager.shutdown();
+        PersistenceManager.startup(Map.of(
+                "jakarta.persistence.jdbc.url", PLAN_URL,
+                "hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+                    statements.add(sql);
+                    return sql;
+                }));
+        bookRepo = new BookRepo();
+        borrowingRepo = new BorrowingRepo();
+        copyRepo = new CopyRepo();
+        publisherRepo = new PublisherRepo();
+        userRepo = new UserRepo();
+
+        Publisher publisher = new Publisher();
+        publisher.setName("Sample Publisher");
+        publisherRepo.createPublisher(publisher);
+
+        book = new Book();
+        book.setTitle("1984");
+        book.setAuthor("George Orwell");
+        book.setPublisherEntity(publisher);
+        book.setPublicationYear(1949);
+        book.setIsbn("9780451524935");
+        bookRepo.createBook(book);
+
+        copy = new Copy();
+        copy.setBook(book);
+        copy.setCopyNumber(1);
+        copy.setStatus(CopyStatus.AVAILABLE);
+        copyRepo.createCopy(copy);
+
+        user = new User();
+        user.setName("John Doe");
+        user.setEmail("john.doe@example.com");
+        userRepo.createUser(user);
+        borrowingRepo.borrowCopy(user.getId(), copy.getId());
+
+        statements.clear();
+    }
+
+    /**
+     * Drops the in-memory database and switches the shared factory back to the configured database after each test.
+     */
+    @AfterEach
+    void restoreDefaultDatabase() throws SQLException {
+        PersistenceManager.shutdown();
+        try (Connection connection = DriverManager.getConnection(PLAN_URL, "sa", "")) {
+            connection.createStatement().execute("DROP ALL OBJECTS");
+        }
+    }
+
+    /**
+     * Tests that the lookups by user, title, copy, status and name do not scan any table.
+     */
+    @Test
+    void testLookupsUseIndexes() throws SQLException {
+        userRepo.isLibrarian(user.getId());
+        borrowingRepo.findBorrowingByTitleAndUser("1984", user.getId());
+        borrowingRepo.getBorrowingsByUser(user.getId());
+        borrowingRepo.getBorrowingRowsByUser(user.getId());
+        copyRepo.getAvailableCopies();
+        copyRepo.getAvailableCopyRows();
+        copyRepo.findCopyByNumberWithBorrowings(1, book.getId());
+        publisherRepo.findPublisherByName("Sample Publisher");
+
+        assertNoTableScans();
+    }
+
+    /**
+     * Tests that borrowing and returning find the copy and the open borrowing without scanning any table.
+     */
+    @Test
+    void testBorrowAndReturnUseIndexes() throws SQLException {
+        Borrowing borrowing = new Borrowing();
+        borrowing.setUser(user);
+        borrowing.setCopy(copy);
+        borrowing.setBorrowDate(new Date());
+        assertThrows(IllegalStateException.class, () -> borrowingRepo.createBorrowing(borrowing));
+        borrowingRepo.returnCopyById(copy.getId());
+        borrowingRepo.borrowCopy(user.getId(), copy.getId());
+        borrowingRepo.returnBorrowing(borrowingRepo.getBorrowingRowsByUser(user.getId()).get(0).id());
+
+        assertNoTableScans();
+    }
+
+    /**
+     * Explains every recorded query and update and fails if any of them reads a whole table.
+     */
+    private void assertNoTableScans() throws SQLException {
+        List<String> queries = statements.stream()
+                .filter(sql -> sql.matches("(?is)(/\\*.*?\\*/)?\\s*(select|update|delete)\\b.*"))
+                .filter(sql -> !sql.toLowerCase().contains("next value for"))
+                .toList();
+        assertFalse(queries.isEmpty(), "No queries were recorded.");
+
+        try (Connection connection = DriverManager.getConnection(PLAN_URL, "sa", "")) {
+            for (String sql : queries) {
+                String plan = explain(connection, sql);
+                assertFalse(plan.contains("tableScan"), "The query scans a table:\n" + plan);
+            }
+        }
+    }
+
+    private static String explain(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setObject(i, 1); // the plan does not depend on the values
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import Entities.*;
+import Repositories.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.NoResultException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the repository method metrics and their JMX view.
+ * The metrics live for the whole JVM, so the tests compare counters before and after their calls.
+ */
+class RepositoryMetricsTests {
+
+    BookRepo bookRepo = new BookRepo();
+    PublisherRepo publisherRepo = new PublisherRepo();
+    BorrowingRepo borrowingRepo = new BorrowingRepo();
+
+    /**
+     * Clears the database before each test to ensure a clean state.
+     */
+    @BeforeEach
+    void clearDatabase() {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Borrowing").executeUpdate();
+        em.createQuery("DELETE FROM Librarian").executeUpdate();
+        em.createQuery("DELETE FROM Copy").executeUpdate();
+        em.createQuery("DELETE FROM Book").executeUpdate();
+        em.createQuery("DELETE FROM Publisher").executeUpdate();
+        em.createQuery("DELETE FROM User").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    /**
+     * Tests that calls and returned rows are counted per method.
+     */
+    @Test
+    void testCallsAndRowsAreCounted() {
+        Book book = createBook();
+        long calls = calls("BookRepo", "findBookById");
+        long rows = rows("BookRepo", "getAllBooks");
+
+        bookRepo.findBookById(book.getId());
+        bookRepo.findBookById(book.getId());
+        bookRepo.getAllBooks();
+
+        RepositoryMethodMXBean findBookById = RepositoryMetrics.get("BookRepo", "findBookById");
+        assertEquals(calls + 2, findBookById.getCalls());
+        assertEquals(rows + 1, RepositoryMetrics.get("BookRepo", "getAllBooks").getRowsReturned());
+        assertTrue(findBookById.getMaxMillis() >= findBookById.getP50Millis());
+        assertTrue(RepositoryMetrics.getAll().containsKey("PublisherRepo.createPublisher"));
+    }
+
+    /**
+     * Tests that a call ending with an exception is counted as an error and the exception still reaches the caller.
+     */
+    @Test
+    void testErrorsAreCounted() {
+        long errors = RepositoryMetrics.get("BorrowingRepo", "findBorrowingByTitleAndUser") == null ? 0
+                : RepositoryMetrics.get("BorrowingRepo", "findBorrowingByTitleAndUser").getErrors();
+
+        assertThrows(NoResultException.class, () -> borrowingRepo.findBorrowingByTitleAndUser("Missing", 1));
+
+        assertEquals(errors + 1, RepositoryMetrics.get("BorrowingRepo", "findBorrowingByTitleAndUser").getErrors());
+    }
+
+    /**
+     * Tests that the method metrics and Hibernate's statistics can be read over JMX.
+     */
+    @Test
+    void testMetricsAreRegisteredOverJmx() throws Exception {
+        Book book = createBook();
+        bookRepo.findBookById(book.getId());
+        bookRepo.getAllBooks();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        Object calls = server.getAttribute(
+                new ObjectName("LMS:type=Repository,repository=BookRepo,method=findBookById"), "Calls");
+        assertTrue((Long) calls > 0);
+
+        Object queries = server.getAttribute(new ObjectName("LMS:type=HibernateStatistics"), "QueryExecutionCount");
+        assertTrue((Long) queries > 0);
+        assertTrue((Long) server.getAttribute(new ObjectName("LMS:type=HibernateStatistics"), "TransactionCount") > 0);
+    }
+
+    /**
+     * Tests that every dump appends a snapshot of the metrics to the file.
+     */
+    @Test
+    void testDumpAppendsSnapshot(@TempDir Path directory) throws Exception {
+        Book book = createBook();
+        bookRepo.findBookById(book.getId());
+        Path file = directory.resolve("metrics.log");
+
+        RepositoryMetrics.dump(file);
+        RepositoryMetrics.dump(file);
+
+        String text = Files.readString(file);
+        assertEquals(2, text.split("--- ", -1).length - 1, "Each dump should add one snapshot.");
+        assertTrue(text.contains("BookRepo.findBookById calls="));
+        assertTrue(text.contains("Hibernate queries="));
+    }
+
+    private long calls(String repository, String method) {
+        RepositoryMethodMXBean metrics = RepositoryMetrics.get(repository, method);
+        return metrics == null ? 0 : metrics.getCalls();
+    }
+
+    private long rows(String repository, String method) {
+        RepositoryMethodMXBean metrics = RepositoryMetrics.get(repository, method);
+        return metrics == null ? 0 : metrics.getRowsReturned();
+    }
+
+    private Book createBook() {
+        Publisher publisher = new Publisher();
+        publisher.setName("Sample Publisher");
+        publisherRepo.createPublisher(publisher);
+
+        Book book = new Book();
+        book.setTitle("1984");
+        book.setAuthor("George Orwell");
+        book.setPublisherEntity(publisher);
+        book.setPublicationYear(1949);
+        book.setIsbn("9780451524935");
+        bookRepo.createBook(book);
+        return book;
+    }
+}
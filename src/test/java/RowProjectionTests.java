@@ -0,0 +1,131 @@
+import Entities.*;
+import Repositories.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the read-only row queries used by the dashboard tables.
+ * Checks that every row carries the values of the entities it was read from.
+ */
+class RowProjectionTests {
+
+    BookRepo bookRepo = new BookRepo();
+    CopyRepo copyRepo = new CopyRepo();
+    PublisherRepo publisherRepo = new PublisherRepo();
+    UserRepo userRepo = new UserRepo();
+    BorrowingRepo borrowingRepo = new BorrowingRepo();
+
+    Publisher publisher;
+    Book book;
+    User user;
+
+    /**
+     * Clears the database and creates a publisher, a book with two copies and a user.
+     */
+    @BeforeEach
+    void clearDatabase() {
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Borrowing").executeUpdate();
+        em.createQuery("DELETE FROM Librarian").executeUpdate();
+        em.createQuery("DELETE FROM Copy").executeUpdate();
+        em.createQuery("DELETE FROM Book").executeUpdate();
+        em.createQuery("DELETE FROM Publisher").executeUpdate();
+        em.createQuery("DELETE FROM User").executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+
+        publisher = new Publisher();
+        publisher.setName("Penguin Random House");
+        publisherRepo.createPublisher(publisher);
+
+        book = new Book();
+        book.setTitle("1984");
+        book.setAuthor("George Orwell");
+        book.setPublisherEntity(publisher);
+        book.setPublicationYear(1949);
+        book.setIsbn("9780451524935");
+        bookRepo.createBook(book);
+
+        for (int i = 1; i <= 2; i++) {
+            Copy copy = new Copy();
+            copy.setBook(book);
+            copy.setCopyNumber(i);
+            copy.setStatus(CopyStatus.AVAILABLE);
+            copyRepo.createCopy(copy);
+        }
+
+        user = new User();
+        user.setName("John Doe");
+        user.setEmail("john.doe@example.com");
+        user.setPhoneNumber("123456789");
+        user.setAddress("123 Elm Street");
+        userRepo.createUser(user);
+    }
+
+    /**
+     * Tests that book rows carry the book's values and its publisher's name.
+     */
+    @Test
+    void testBookRows() {
+        List<BookRow> rows = bookRepo.getBookRowsPage(0, 10);
+
+        assertEquals(List.of(new BookRow(book.getId(), "1984", "George Orwell", "Penguin Random House", 1949, "9780451524935")), rows);
+    }
+
+    /**
+     * Tests that user rows carry the user's values.
+     */
+    @Test
+    void testUserRows() {
+        List<UserRow> rows = userRepo.getUserRowsPage(0, 10);
+
+        assertEquals(List.of(new UserRow(user.getId(), "John Doe", "john.doe@example.com", "123456789", "123 Elm Street")), rows);
+    }
+
+    /**
+     * Tests that available copy rows list only copies that are not borrowed.
+     */
+    @Test
+    void testAvailableCopyRows() {
+        Copy first = copyRepo.findCopyByNumberWithBorrowings(1, book.getId());
+        first.setStatus(CopyStatus.BORROWED);
+        copyRepo.updateCopy(first);
+
+        List<AvailableCopyRow> rows = copyRepo.getAvailableCopyRows();
+
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(0).copyNumber());
+        assertEquals(book.getId(), rows.get(0).bookId());
+        assertEquals("9780451524935", rows.get(0).isbn());
+    }
+
+    /**
+     * Tests that borrowing rows carry the user's name and the book's title, in the page and per user.
+     */
+    @Test
+    void testBorrowingRows() {
+        Borrowing borrowing = new Borrowing();
+        borrowing.setUser(user);
+        borrowing.setCopy(copyRepo.findCopyByNumberWithBorrowings(1, book.getId()));
+        borrowing.setBorrowDate(new Date());
+        borrowingRepo.createBorrowing(borrowing);
+
+        List<BorrowingRow> page = borrowingRepo.getBorrowingRowsPage(0, 10);
+        List<BorrowingRow> byUser = borrowingRepo.getBorrowingRowsByUser(user.getId());
+
+        assertEquals(1, page.size());
+        assertEquals("John Doe", page.get(0).userName());
+        assertEquals("1984", page.get(0).bookTitle());
+        assertNotNull(page.get(0).borrowDate());
+        assertNull(page.get(0).returnDate());
+        assertEquals(page, byUser);
+        assertTrue(borrowingRepo.getBorrowingRowsByUser(user.getId() + 1).isEmpty());
+    }
+}
@@ -0,0 +1,116 @@
+import Repositories.PersistenceManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the versioned schema migrations.
+ * Boots the persistence unit against a separate in-memory database.
+ */
+class SchemaMigrationsTests {
+
+    private static final String MIGRATION_URL = "jdbc:h2:mem:migrations;DB_CLOSE_DELAY=-1";
+
+    /**
+     * Drops the in-memory database and switches the shared factory back to the configured database after each test.
+     */
+    @AfterEach
+    void restoreDefaultDatabase() throws SQLException {
+        PersistenceManager.shutdown();
+        try (Connection connection = DriverManager.getConnection(MIGRATION_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    /**
+     * Tests that the migrations create the schema the entities are mapped to on an empty database.
+     */
+    @Test
+    void testMigrationsMatchEntities() {
+        assertDoesNotThrow(() -> PersistenceManager.startup(Map.of(
+                "jakarta.persistence.jdbc.url", MIGRATION_URL,
+                "hibernate.hbm2ddl.auto", "validate")));
+    }
+
+    /**
+     * Tests that every migration is applied once and recorded, and that a later start applies nothing.
+     */
+    @Test
+    void testMigrationsAreAppliedOnce() throws SQLException {
+        PersistenceManager.startup(Map.of("jakarta.persistence.jdbc.url", MIGRATION_URL));
+        PersistenceManager.shutdown();
+        PersistenceManager.startup(Map.of("jakarta.persistence.jdbc.url", MIGRATION_URL));
+
+        try (Connection connection = DriverManager.getConnection(MIGRATION_URL, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, description FROM SCHEMA_VERSION ORDER BY version")) {
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+            assertEquals("baseline", rs.getString(2));
+            assertTrue(rs.next());
+            assertEquals(2, rs.getInt(1));
+            assertEquals("drop duplicate librarian index", rs.getString(2));
+            assertFalse(rs.next(), "Each migration should be recorded once.");
+        }
+        try (Connection connection = DriverManager.getConnection(MIGRATION_URL, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                     + "WHERE INDEX_NAME = 'IDX_LIBRARIANS_USER'")) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1), "The index duplicating the unique constraint should be dropped.");
+        }
+    }
+
+    /**
+     * Tests that the start is stopped when an applied migration no longer matches its recorded checksum.
+     */
+    @Test
+    void testChangedMigrationIsRejected() throws SQLException {
+        PersistenceManager.startup(Map.of("jakarta.persistence.jdbc.url", MIGRATION_URL));
+        PersistenceManager.shutdown();
+        try (Connection connection = DriverManager.getConnection(MIGRATION_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE SCHEMA_VERSION SET checksum = checksum + 1 WHERE version = 1");
+        }
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> PersistenceManager.startup(Map.of("jakarta.persistence.jdbc.url", MIGRATION_URL)));
+        assertTrue(error.getMessage().contains("V1__baseline.sql"), error.getMessage());
+    }
+
+    /**
+     * Tests that a baseline recorded with the checksum of the whole file, from before comments were left out
+     * of the checksum, is still accepted and gets the current checksum.
+     */
+    @Test
+    void testFormerChecksumIsReplaced() throws SQLException {
+        PersistenceManager.startup(Map.of("jakarta.persistence.jdbc.url", MIGRATION_URL));
+        PersistenceManager.shutdown();
+        long current = baselineChecksum();
+        try (Connection connection = DriverManager.getConnection(MIGRATION_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE SCHEMA_VERSION SET checksum = 3629533513 WHERE version = 1");
+        }
+
+        assertDoesNotThrow(() -> PersistenceManager.startup(Map.of("jakarta.persistence.jdbc.url", MIGRATION_URL)));
+        assertEquals(current, baselineChecksum());
+    }
+
+    private static long baselineChecksum() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(MIGRATION_URL, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT checksum FROM SCHEMA_VERSION WHERE version = 1")) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+}
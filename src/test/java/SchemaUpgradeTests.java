@@ -0,0 +1,122 @@
+import Entities.CopyStatus;
+import Entities.Publisher;
+import Repositories.PersistenceManager;
+import Repositories.PublisherRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the upgrade of databases created with identity id columns.
+ * Boots the persistence unit against a separate in-memory database that mimics the old schema.
+ */
+class SchemaUpgradeTests {
+
+    private static final String LEGACY_URL = "jdbc:h2:mem:legacy;DB_CLOSE_DELAY=-1";
+
+    /**
+     * Switches the shared factory back to the configured database after each test.
+     */
+    @AfterEach
+    void restoreDefaultDatabase() {
+        PersistenceManager.shutdown();
+    }
+
+    /**
+     * Tests that ids generated after the upgrade continue after the highest existing id.
+     */
+    @Test
+    void testSequenceStartsAfterExistingIds() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(LEGACY_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Publishers (id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "address VARCHAR(255), name VARCHAR(255) NOT NULL, phoneNumber VARCHAR(255))");
+            statement.execute("INSERT INTO Publishers (id, name) VALUES (120, 'Existing Publisher')");
+        }
+
+        PersistenceManager.shutdown();
+        PersistenceManager.startup(Map.of("jakarta.persistence.jdbc.url", LEGACY_URL));
+
+        PublisherRepo publisherRepo = new PublisherRepo();
+        Publisher first = new Publisher();
+        first.setName("First New Publisher");
+        publisherRepo.createPublisher(first);
+        Publisher second = new Publisher();
+        second.setName("Second New Publisher");
+        publisherRepo.createPublisher(second);
+
+        assertTrue(first.getId() > 120, "New ids should not collide with existing rows.");
+        assertTrue(second.getId() > first.getId(), "Ids should keep increasing.");
+
+        try (Connection connection = DriverManager.getConnection(LEGACY_URL, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT IS_IDENTITY FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'PUBLISHERS' AND COLUMN_NAME = 'ID'")) {
+            assertTrue(rs.next());
+            assertEquals("NO", rs.getString(1), "The identity should be removed from the id column.");
+        }
+    }
+
+    /**
+     * Tests that copies saved before copies were versioned get a version column starting at 0.
+     */
+    @Test
+    void testVersionColumnIsAdded() throws SQLException {
+        String url = "jdbc:h2:mem:legacyCopies;DB_CLOSE_DELAY=-1";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Copies (id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "copyNumber INTEGER NOT NULL, status VARCHAR(255) NOT NULL, book_id INTEGER)");
+            statement.execute("INSERT INTO Copies (id, copyNumber, status) VALUES (7, 1, 'Available')");
+        }
+
+        PersistenceManager.shutdown();
+        PersistenceManager.startup(Map.of("jakarta.persistence.jdbc.url", url));
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version FROM Copies WHERE id = 7")) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1), "Existing rows should start at version 0.");
+        }
+    }
+
+    /**
+     * Tests that copy statuses stored by name are replaced by their codes and still read back as the same status.
+     */
+    @Test
+    void testCopyStatusIsCompacted() throws SQLException {
+        String url = "jdbc:h2:mem:legacyStatus;DB_CLOSE_DELAY=-1";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Copies (id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "copyNumber INTEGER NOT NULL, status VARCHAR(255) NOT NULL, book_id INTEGER)");
+            statement.execute("INSERT INTO Copies (id, copyNumber, status) VALUES (1, 1, 'Available'), (2, 2, 'Borrowed')");
+        }
+
+        PersistenceManager.shutdown();
+        PersistenceManager.startup(Map.of("jakarta.persistence.jdbc.url", url));
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT status FROM Copies ORDER BY id")) {
+                assertTrue(rs.next());
+                assertEquals(CopyStatus.AVAILABLE, CopyStatus.fromCode(rs.getString(1).charAt(0)));
+                assertTrue(rs.next());
+                assertEquals(CopyStatus.BORROWED, CopyStatus.fromCode(rs.getString(1).charAt(0)));
+            }
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT 1 FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'COPIES' AND INDEX_NAME = 'IDX_COPIES_STATUS'")) {
+                assertTrue(rs.next(), "The status column should be indexed.");
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import Entities.*;
+import Repositories.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for validating the slow query log.
+ * Each test boots the persistence unit on its own in-memory database with its own log file and threshold.
+ */
+class SlowQueryLogTests {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Closes the test factory, which writes the queued entries and closes the log file.
+     * The next test class boots the regular database again.
+     */
+    @AfterEach
+    void shutdown() {
+        PersistenceManager.shutdown();
+    }
+
+    /**
+     * Tests that with a threshold of 0 every statement is logged with its parameters, rows and repository method.
+     */
+    @Test
+    void testStatementsAboveThresholdAreLogged() throws Exception {
+        Path file = startup("slowQueriesAll", 0);
+        User user = createBorrowedCopy();
+
+        new BorrowingRepo().findBorrowingByTitleAndUser("1984", user.getId());
+        PersistenceManager.shutdown();
+
+        String log = Files.readString(file);
+        String entry = log.lines()
+                .filter(line -> line.contains("BorrowingRepo.findBorrowingByTitleAndUser") && line.contains("'1984'"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("The query should be logged with its repository method and parameters:\n" + log));
+        assertTrue(entry.contains("rows=1"), "The number of rows read should be logged: " + entry);
+        assertTrue(entry.contains(" ms "), "The execution time should be logged: " + entry);
+        assertTrue(log.lines().anyMatch(line -> line.contains("BorrowingRepo.borrowCopy") && line.contains("update")),
+                "Updates should be logged as well.");
+        assertTrue(log.lines().anyMatch(line -> line.contains("insert into Borrowings") && line.contains("=NULL")),
+                "The return date of a new borrowing is bound with setNull and should be logged as NULL:\n" + log);
+    }
+
+    /**
+     * Tests that statements faster than the threshold are not logged.
+     */
+    @Test
+    void testFastStatementsAreNotLogged() throws Exception {
+        Path file = startup("slowQueriesNone", 60_000);
+        User user = createBorrowedCopy();
+
+        new BorrowingRepo().findBorrowingByTitleAndUser("1984", user.getId());
+        PersistenceManager.shutdown();
+
+        assertEquals("", Files.readString(file), "No statement takes a minute, so nothing should be logged.");
+    }
+
+    private Path startup(String database, long thresholdMs) {
+        PersistenceManager.startup(Map.of(
+                "jakarta.persistence.jdbc.url", "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "lms.slow_query.threshold_ms", String.valueOf(thresholdMs),
+                "lms.slow_query.file", directory.resolve("slow.%g.log").toString()));
+        return directory.resolve("slow.0.log");
+    }
+
+    private User createBorrowedCopy() {
+        Publisher publisher = new Publisher();
+        publisher.setName("Sample Publisher");
+        new PublisherRepo().createPublisher(publisher);
+
+        Book book = new Book();
+        book.setTitle("1984");
+        book.setAuthor("George Orwell");
+        book.setPublisherEntity(publisher);
+        book.setPublicationYear(1949);
+        book.setIsbn("9780451524935");
+        new BookRepo().createBook(book);
+
+        Copy copy = new Copy();
+        copy.setBook(book);
+        copy.setCopyNumber(1);
+        copy.setStatus(CopyStatus.AVAILABLE);
+        new CopyRepo().createCopy(copy);
+
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("john.doe@example.com");
+        new UserRepo().createUser(user);
+
+        assertTrue(new BorrowingRepo().borrowCopy(user.getId(), copy.getId()));
+        return user;
+    }
+}
@@ -4,7 +4,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Persistence;
 
 import java.util.Date;
 import java.util.List;
@@ -29,7 +28,7 @@ class TestForRelationships {
      */
     @BeforeEach
     void clearDatabase() {
-        EntityManager em = Persistence.createEntityManagerFactory("LMS-PU").createEntityManager();
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
         em.getTransaction().begin();
         em.createQuery("DELETE FROM Borrowing").executeUpdate();
         em.createQuery("DELETE FROM Librarian").executeUpdate();
@@ -71,13 +70,13 @@ class TestForRelationships {
         Copy copy1 = new Copy();
         copy1.setBook(book);
         copy1.setCopyNumber(1);
-        copy1.setStatus("Available");
+        copy1.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy1);
 
         Copy copy2 = new Copy();
         copy2.setBook(book);
         copy2.setCopyNumber(2);
-        copy2.setStatus("Available");
+        copy2.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy2);
 
         Borrowing borrowing1 = new Borrowing();
@@ -121,13 +120,13 @@ class TestForRelationships {
         Copy copy1 = new Copy();
         copy1.setBook(book);
         copy1.setCopyNumber(1);
-        copy1.setStatus("Available");
+        copy1.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy1);
 
         Copy copy2 = new Copy();
         copy2.setBook(book);
         copy2.setCopyNumber(2);
-        copy2.setStatus("Borrowed");
+        copy2.setStatus(CopyStatus.BORROWED);
         copyRepo.createCopy(copy2);
 
         List<Copy> copies = copyRepo.getAllCopies();
@@ -29,7 +29,7 @@ class UserTests {
      */
     @BeforeEach
     void clearDatabase() {
-        EntityManager em = Persistence.createEntityManagerFactory("LMS-PU").createEntityManager();
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
         em.getTransaction().begin();
 
         em.createQuery("DELETE FROM Borrowing").executeUpdate();
@@ -150,7 +150,7 @@ class UserTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(1);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         Borrowing borrowing = new Borrowing();
@@ -1,7 +1,6 @@
 import Entities.*;
 import Repositories.*;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Persistence;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,7 +27,7 @@ class ValidationAndEdgeCaseTests {
      */
     @BeforeEach
     void clearDatabase() {
-        EntityManager em = Persistence.createEntityManagerFactory("LMS-PU").createEntityManager();
+        EntityManager em = PersistenceManager.getEntityManagerFactory().createEntityManager();
         em.getTransaction().begin();
 
         em.createQuery("DELETE FROM Borrowing").executeUpdate();
@@ -142,7 +141,7 @@ class ValidationAndEdgeCaseTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(2);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         Borrowing borrowing = new Borrowing();
@@ -187,7 +186,7 @@ class ValidationAndEdgeCaseTests {
         Copy copy = new Copy();
         copy.setBook(book);
         copy.setCopyNumber(2);
-        copy.setStatus("Available");
+        copy.setStatus(CopyStatus.AVAILABLE);
         copyRepo.createCopy(copy);
 
         Runnable task1 = () -> {
@@ -196,7 +195,7 @@ class ValidationAndEdgeCaseTests {
             borrowing.setCopy(copy);
             borrowing.setUser(user);
             borrowingRepo.createBorrowing(borrowing);
-            copy.setStatus("Borrowed");
+            copy.setStatus(CopyStatus.BORROWED);
             copyRepo.updateCopy(copy);
         };
 
@@ -206,7 +205,7 @@ class ValidationAndEdgeCaseTests {
             borrowing.setCopy(copy);
             borrowing.setUser(user);
             borrowingRepo.createBorrowing(borrowing);
-            copy.setStatus("Borrowed");
+            copy.setStatus(CopyStatus.BORROWED);
             copyRepo.updateCopy(copy);
         };
 
@@ -218,7 +217,7 @@ class ValidationAndEdgeCaseTests {
         thread2.join();
 
         Copy updatedCopy = copyRepo.findCopyById(copy.getId());
-        assertEquals("Borrowed", updatedCopy.getStatus(),
+        assertEquals(CopyStatus.BORROWED, updatedCopy.getStatus(),
                 "The copy should have a status of 'Borrowed' after concurrency handling.");
     }
 